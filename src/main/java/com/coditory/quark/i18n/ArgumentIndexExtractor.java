@@ -1,60 +1,89 @@
 package com.coditory.quark.i18n;
 
+import com.ibm.icu.text.MessagePattern;
+import com.ibm.icu.text.MessagePattern.Part;
+
+import java.util.BitSet;
 import java.util.HashSet;
-import java.util.PrimitiveIterator;
+import java.util.Locale;
 import java.util.Set;
 
 import static com.coditory.quark.i18n.Preconditions.expectNonNull;
-import static java.util.Collections.unmodifiableSet;
 
 final class ArgumentIndexExtractor {
-    static Set<Integer> extractArgumentIndexes(String template) {
-        expectNonNull(template, "template");
-        Set<Integer> result = new HashSet<>();
-        boolean escaped = false;
-        int stack = 0;
-        int prev = -1;
-        for (PrimitiveIterator.OfInt it = template.codePoints().iterator(); it.hasNext(); ) {
-            int c = it.next();
-            if (c == '\'') {
-                escaped = true;
-            } else if (c == '{' && it.hasNext() && (!escaped || stack > 0 && prev == '\'')) {
-                if (prev == '\'') {
-                    stack = 0;
-                    escaped = false;
-                }
-                int number = extractIndex(it);
-                if (number >= 0) {
-                    result.add(number);
-                }
-            } else if (escaped && c == '{') {
-                stack += 1;
-            } else if (escaped && c == '}') {
-                stack = Math.max(0, stack - 1);
-                if (stack == 0) {
-                    escaped = false;
-                }
-            } else if (escaped && stack == 0) {
-                escaped = false;
+    /**
+     * Reads argument indexes (including the ones in plural and select sub-messages) from an already parsed template.
+     */
+    static BitSet extractArgumentIndexes(MessagePattern pattern) {
+        expectNonNull(pattern, "pattern");
+        BitSet result = new BitSet();
+        int count = pattern.countParts();
+        for (int i = 0; i < count; ++i) {
+            Part part = pattern.getPart(i);
+            if (part.getType() == Part.Type.ARG_NUMBER) {
+                result.set(part.getValue());
             }
-            prev = c;
         }
-        return unmodifiableSet(result);
+        return result;
     }
 
-    private static int extractIndex(PrimitiveIterator.OfInt iterator) {
-        int c = iterator.next();
-        while (Character.isWhitespace(c)) {
-            c = iterator.next();
-        }
-        int number = 0;
-        while (Character.isDigit(c)) {
-            number = number * 10 + Character.digit(c, 10);
-            c = iterator.next();
+    static Set<String> extractArgumentNames(MessagePattern pattern) {
+        expectNonNull(pattern, "pattern");
+        Set<String> result = new HashSet<>();
+        int count = pattern.countParts();
+        for (int i = 0; i < count; ++i) {
+            Part part = pattern.getPart(i);
+            if (part.getType() == Part.Type.ARG_NAME) {
+                result.add(pattern.getSubstring(part));
+            }
         }
-        while (Character.isWhitespace(c)) {
-            c = iterator.next();
+        return Set.copyOf(result);
+    }
+
+    /**
+     * Returns names (or indexes) of arguments grouped by the way they are used in the template.
+     */
+    static ArgumentTypes extractArgumentTypes(MessagePattern pattern) {
+        expectNonNull(pattern, "pattern");
+        Set<String> untyped = new HashSet<>();
+        Set<String> typed = new HashSet<>();
+        Set<String> currency = new HashSet<>();
+        int count = pattern.countParts();
+        for (int i = 0; i < count; ++i) {
+            Part part = pattern.getPart(i);
+            if (part.getType() != Part.Type.ARG_START) {
+                continue;
+            }
+            String name = pattern.getSubstring(pattern.getPart(i + 1));
+            if (part.getArgType() == MessagePattern.ArgType.NONE) {
+                untyped.add(name);
+            } else {
+                typed.add(name);
+            }
+            if (part.getArgType() == MessagePattern.ArgType.SIMPLE && isCurrency(pattern, i + 2)) {
+                currency.add(name);
+            }
         }
-        return c == '}' || c == ',' ? number : -1;
+        return new ArgumentTypes(Set.copyOf(untyped), Set.copyOf(typed), Set.copyOf(currency));
+    }
+
+    // "{0,number,currency}", part at the index is the argument type
+    private static boolean isCurrency(MessagePattern pattern, int index) {
+        Part style = pattern.getPart(index + 1);
+        return keyword(pattern.getSubstring(pattern.getPart(index))).equals("number")
+                && style.getType() == Part.Type.ARG_STYLE
+                && keyword(pattern.getSubstring(style)).equals("currency");
+    }
+
+    private static String keyword(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Names (or indexes) of arguments used without a type ("{0}"), with a type ("{0,date}")
+     * and with a currency format ("{0,number,currency}"). An argument may be used in all these ways.
+     */
+    record ArgumentTypes(Set<String> untyped, Set<String> typed, Set<String> currency) {
+        static final ArgumentTypes EMPTY = new ArgumentTypes(Set.of(), Set.of(), Set.of());
     }
 }
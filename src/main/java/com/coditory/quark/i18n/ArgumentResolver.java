@@ -1,6 +1,11 @@
 package com.coditory.quark.i18n;
 
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -8,80 +13,152 @@ import java.util.Set;
 import static com.coditory.quark.i18n.Preconditions.expectNonNull;
 import static java.util.stream.Collectors.toMap;
 
+/**
+ * Applies argument transformers. ICU MessageFormat formats only java.util.Date values as dates,
+ * so templates formatted by ICU use additional transformers (like java.time conversion)
+ * that are skipped when a template is rendered by {@link NativeMessageFormat}.
+ */
 final class ArgumentResolver {
-    private final Map<Class<?>, I18nArgTransformer<?>> transformers;
-
-    static ArgumentResolver of(List<I18nArgTransformer<?>> transformers) {
+    static ArgumentResolver of(List<I18nArgTransformer<?>> transformers, List<I18nArgTransformer<?>> icuTransformers) {
         expectNonNull(transformers, "transformers");
-        Map<Class<?>, I18nArgTransformer<?>> map = transformers.stream().collect(toMap(I18nArgTransformer::getArgType, it -> it));
-        return new ArgumentResolver(map);
+        expectNonNull(icuTransformers, "icuTransformers");
+        Map<Class<?>, I18nArgTransformer<?>> map = transformers.stream()
+                .collect(toMap(I18nArgTransformer::getArgType, it -> it));
+        Map<Class<?>, I18nArgTransformer<?>> icuMap = new HashMap<>(map);
+        icuTransformers.forEach(it -> icuMap.putIfAbsent(it.getArgType(), it));
+        return new ArgumentResolver(new Transformers(map), new Transformers(icuMap));
     }
 
-    private ArgumentResolver(Map<Class<?>, I18nArgTransformer<?>> transformers) {
-        expectNonNull(transformers, "transformers");
-        this.transformers = Map.copyOf(transformers);
+    private final Transformers transformers;
+    private final Transformers icuTransformers;
+
+    private ArgumentResolver(Transformers transformers, Transformers icuTransformers) {
+        this.transformers = expectNonNull(transformers, "transformers");
+        this.icuTransformers = expectNonNull(icuTransformers, "icuTransformers");
+    }
+
+    Object[] resolveArguments(Object[] args, BitSet usedIndexes) {
+        return transformers.resolveArguments(args, usedIndexes);
+    }
+
+    Map<String, Object> resolveArguments(Map<String, Object> args, Set<String> usedArgumentNames) {
+        return transformers.resolveArguments(args, usedArgumentNames);
     }
 
-    Object[] resolveArguments(Object[] args, Set<Integer> usedIndexes) {
-        expectNonNull(args, "args");
-        expectNonNull(usedIndexes, "usedIndexes");
-        boolean transformable = false;
-        for (int i = 0; i < args.length; ++i) {
-            Object arg = args[i];
-            if (arg != null && usedIndexes.contains(i) && transformers.containsKey(arg.getClass())) {
-                transformable = true;
-                break;
+    Object[] resolveIcuArguments(Object[] args, BitSet usedIndexes) {
+        return icuTransformers.resolveArguments(args, usedIndexes);
+    }
+
+    Map<String, Object> resolveIcuArguments(Map<String, Object> args, Set<String> usedArgumentNames) {
+        return icuTransformers.resolveArguments(args, usedArgumentNames);
+    }
+
+    private static final class Transformers {
+        private final Map<Class<?>, I18nArgTransformer<?>> transformers;
+        private final ClassValue<I18nArgTransformer<?>> transformersByType = new ClassValue<>() {
+            @Override
+            protected I18nArgTransformer<?> computeValue(Class<?> type) {
+                return findTransformer(type);
             }
+        };
+
+        Transformers(Map<Class<?>, I18nArgTransformer<?>> transformers) {
+            this.transformers = Map.copyOf(transformers);
         }
-        if (!transformable) {
-            return args;
+
+        Object[] resolveArguments(Object[] args, BitSet usedIndexes) {
+            expectNonNull(args, "args");
+            expectNonNull(usedIndexes, "usedIndexes");
+            if (transformers.isEmpty()) {
+                return args;
+            }
+            Object[] result = null;
+            for (int i = usedIndexes.nextSetBit(0); i >= 0 && i < args.length; i = usedIndexes.nextSetBit(i + 1)) {
+                Object arg = args[i];
+                if (arg != null && getTransformer(arg) != null) {
+                    if (result == null) {
+                        result = args.clone();
+                    }
+                    result[i] = transformArgument(arg, i);
+                }
+            }
+            return result != null ? result : args;
         }
-        Object[] result = new Object[args.length];
-        for (int i = 0; i < args.length; ++i) {
-            Object arg = args[i];
-            if (arg != null && usedIndexes.contains(i)) {
-                result[i] = transformArgument(args[i], i);
+
+        Map<String, Object> resolveArguments(Map<String, Object> args, Set<String> usedArgumentNames) {
+            expectNonNull(args, "args");
+            expectNonNull(usedArgumentNames, "usedArgumentNames");
+            if (transformers.isEmpty()) {
+                return args;
+            }
+            Map<String, Object> result = null;
+            for (String name : usedArgumentNames) {
+                Object arg = args.get(name);
+                if (arg != null && getTransformer(arg) != null) {
+                    if (result == null) {
+                        result = new HashMap<>(args);
+                    }
+                    result.put(name, transformArgument(arg, name));
+                }
             }
+            return result != null ? result : args;
         }
-        return result;
-    }
 
-    Map<String, Object> resolveArguments(Map<String, Object> args, Set<String> usedArgumentNames) {
-        expectNonNull(args, "args");
-        expectNonNull(usedArgumentNames, "usedArgumentNames");
-        Map<String, Object> result = new HashMap<>();
-        for (Map.Entry<String, Object> entry : args.entrySet()) {
-            String key = entry.getKey();
-            Object value = entry.getValue();
-            if (value != null && usedArgumentNames.contains(key)) {
-                value = transformArgument(value, key);
+        private Object transformArgument(Object argument, Object nameOrIndex) {
+            try {
+                return transformArgumentWithLimit(argument, 0);
+            } catch (Throwable e) {
+                throw new IllegalArgumentException("Could not transform argument: " + nameOrIndex + "=" + argument, e);
             }
-            result.put(key, value);
         }
-        return result;
-    }
 
-    private Object transformArgument(Object argument, Object nameOrIndex) {
-        try {
-            return transformArgumentWithLimit(argument, 0);
-        } catch (Throwable e) {
-            throw new IllegalArgumentException("Could not transform argument: " + nameOrIndex + "=" + argument, e);
+        @SuppressWarnings("unchecked")
+        private Object transformArgumentWithLimit(Object argument, int count) {
+            if (count > 10) {
+                throw new IllegalArgumentException("Too many argument transformations");
+            }
+            if (argument == null) {
+                return null;
+            }
+            I18nArgTransformer<Object> transformer = (I18nArgTransformer<Object>) getTransformer(argument);
+            if (transformer == null) {
+                return argument;
+            }
+            Object transformed = transformer.transform(argument);
+            // transformer registered for a supertype may return a value of the same type
+            if (transformed != null && transformed.getClass() == argument.getClass()) {
+                return transformed;
+            }
+            return transformArgumentWithLimit(transformed, count + 1);
         }
-    }
 
-    @SuppressWarnings("unchecked")
-    private Object transformArgumentWithLimit(Object argument, int count) {
-        if (count > 10) {
-            throw new IllegalArgumentException("Too many argument transformations");
+        private I18nArgTransformer<?> getTransformer(Object argument) {
+            return transformersByType.get(argument.getClass());
         }
-        if (argument == null) {
+
+        private I18nArgTransformer<?> findTransformer(Class<?> type) {
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                I18nArgTransformer<?> transformer = transformers.get(current);
+                if (transformer != null) {
+                    return transformer;
+                }
+            }
+            Set<Class<?>> visited = new HashSet<>();
+            Deque<Class<?>> queue = new ArrayDeque<>();
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                Collections.addAll(queue, current.getInterfaces());
+            }
+            while (!queue.isEmpty()) {
+                Class<?> current = queue.removeFirst();
+                if (visited.add(current)) {
+                    I18nArgTransformer<?> transformer = transformers.get(current);
+                    if (transformer != null) {
+                        return transformer;
+                    }
+                    Collections.addAll(queue, current.getInterfaces());
+                }
+            }
             return null;
         }
-        I18nArgTransformer<Object> transformer = (I18nArgTransformer<Object>) transformers.get(argument.getClass());
-        if (transformer == null) {
-            return argument;
-        }
-        Object transformed = transformer.transform(argument);
-        return transformArgumentWithLimit(transformed, count + 1);
     }
 }
@@ -10,6 +10,7 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.coditory.quark.i18n.Preconditions.expectNonNull;
 import static java.util.Collections.unmodifiableMap;
@@ -51,6 +52,8 @@ public final class Currencies {
     public static final Currency PLN = Currency.getInstance("PLN");
 
     private static final Map<Currency, Locale> LOCALE_BY_CURRENCY;
+    // NumberFormat is not thread-safe, so formats are pooled instead of shared
+    private static final ConcurrentHashMap<Currency, ObjectPool<NumberFormat>> CURRENCY_FORMATS = new ConcurrentHashMap<>();
 
     static {
         Map<Currency, Locale> localeByCurrency = new HashMap<>();
@@ -71,31 +74,62 @@ public final class Currencies {
     public static String formatByCurrency(@NotNull BigDecimal amount, @NotNull Currency currency) {
         expectNonNull(amount, "amount");
         expectNonNull(currency, "currency");
-        Locale currencyLocale = LOCALE_BY_CURRENCY.get(currency);
-        if (currencyLocale == null) {
+        ObjectPool<NumberFormat> pool = getCurrencyFormatPool(currency);
+        if (pool == null) {
             throw new IllegalArgumentException("Unrecognized currency: " + currency);
         }
-        return NumberFormat.getCurrencyInstance(currencyLocale).format(amount);
+        NumberFormat format = pool.acquire();
+        try {
+            return format.format(amount);
+        } finally {
+            pool.release(format);
+        }
     }
 
     @NotNull
     public static String formatByCurrency(long amount, @NotNull Currency currency) {
         expectNonNull(currency, "currency");
-        Locale currencyLocale = LOCALE_BY_CURRENCY.get(currency);
-        if (currencyLocale == null) {
+        ObjectPool<NumberFormat> pool = getCurrencyFormatPool(currency);
+        if (pool == null) {
             throw new IllegalArgumentException("Missing locale for currency: " + currency);
         }
-        return NumberFormat.getCurrencyInstance(currencyLocale).format(amount);
+        NumberFormat format = pool.acquire();
+        try {
+            return format.format(amount);
+        } finally {
+            pool.release(format);
+        }
     }
 
     @NotNull
     public static String formatByCurrency(double amount, @NotNull Currency currency) {
         expectNonNull(currency, "currency");
+        ObjectPool<NumberFormat> pool = getCurrencyFormatPool(currency);
+        if (pool == null) {
+            throw new IllegalArgumentException("Missing locale for currency: " + currency);
+        }
+        NumberFormat format = pool.acquire();
+        try {
+            return format.format(amount);
+        } finally {
+            pool.release(format);
+        }
+    }
+
+    @Nullable
+    private static ObjectPool<NumberFormat> getCurrencyFormatPool(Currency currency) {
+        ObjectPool<NumberFormat> pool = CURRENCY_FORMATS.get(currency);
+        if (pool != null) {
+            return pool;
+        }
         Locale currencyLocale = LOCALE_BY_CURRENCY.get(currency);
         if (currencyLocale == null) {
-            throw new IllegalArgumentException("Missing locale for currency: " + currency);
+            return null;
         }
-        return NumberFormat.getCurrencyInstance(currencyLocale).format(amount);
+        return CURRENCY_FORMATS.computeIfAbsent(currency, c -> {
+            NumberFormat prototype = NumberFormat.getCurrencyInstance(currencyLocale);
+            return new ObjectPool<>(() -> (NumberFormat) prototype.clone());
+        });
     }
 
     @NotNull
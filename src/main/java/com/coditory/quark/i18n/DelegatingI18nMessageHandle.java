@@ -0,0 +1,62 @@
+package com.coditory.quark.i18n;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.Map;
+
+import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+
+/**
+ * Handle that looks up the message in the message pack on every call.
+ * Used by message packs that do not precompile handles.
+ */
+final class DelegatingI18nMessageHandle implements I18nMessageHandle {
+    private final I18nMessagePack messagePack;
+    private final I18nPath path;
+
+    DelegatingI18nMessageHandle(I18nMessagePack messagePack, I18nPath path) {
+        this.messagePack = expectNonNull(messagePack, "messagePack");
+        this.path = expectNonNull(path, "path");
+    }
+
+    @NotNull
+    @Override
+    public I18nPath getPath() {
+        return path;
+    }
+
+    @NotNull
+    @Override
+    public String getMessage(@NotNull Locale locale, Object... args) {
+        expectNonNull(locale, "locale");
+        return messagePack.getMessage(I18nKey.of(locale, path), args);
+    }
+
+    @NotNull
+    @Override
+    public String getMessage(@NotNull Locale locale, @NotNull Map<String, Object> args) {
+        expectNonNull(locale, "locale");
+        return messagePack.getMessage(I18nKey.of(locale, path), args);
+    }
+
+    @Nullable
+    @Override
+    public String getMessageOrNull(@NotNull Locale locale, Object... args) {
+        expectNonNull(locale, "locale");
+        return messagePack.getMessageOrNull(I18nKey.of(locale, path), args);
+    }
+
+    @Nullable
+    @Override
+    public String getMessageOrNull(@NotNull Locale locale, @NotNull Map<String, Object> args) {
+        expectNonNull(locale, "locale");
+        return messagePack.getMessageOrNull(I18nKey.of(locale, path), args);
+    }
+
+    @Override
+    public String toString() {
+        return "I18nMessageHandle{" + path + '}';
+    }
+}
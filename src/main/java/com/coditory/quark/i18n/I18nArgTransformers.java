@@ -5,15 +5,10 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.util.List;
 
 final class I18nArgTransformers {
     private static final I18nArgTransformer<Instant> INSTANT_TRANSFORMER = I18nArgTransformer.of(Instant.class, Date::from);
-    private static final I18nArgTransformer<ZonedDateTime> ZONED_DATE_TIME_TRANSFORMER = I18nArgTransformer.of(ZonedDateTime.class, value -> {
-        Instant instant = value.toInstant();
-        return Date.from(instant);
-    });
     private static final I18nArgTransformer<LocalDateTime> LOCAL_DATE_TIME_TRANSFORMER = I18nArgTransformer.of(LocalDateTime.class, value -> {
         Instant instant = value.atZone(ZoneId.systemDefault()).toInstant();
         return Date.from(instant);
@@ -23,9 +18,9 @@ final class I18nArgTransformers {
         return Date.from(instant);
     });
 
+    // ZonedDateTime is converted by SharedFormats, so it is formatted in its own time zone
     private static final List<I18nArgTransformer<?>> JAVA_TIME_TRANSFORMERS = List.of(
             INSTANT_TRANSFORMER,
-            ZONED_DATE_TIME_TRANSFORMER,
             LOCAL_DATE_TIME_TRANSFORMER,
             LOCAL_DATE_TRANSFORMER
     );
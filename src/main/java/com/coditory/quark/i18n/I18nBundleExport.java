@@ -0,0 +1,157 @@
+package com.coditory.quark.i18n;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Effective message templates for a locale serialized to a flat JSON object.
+ * Keys are paths relative to the exported prefix, values are templates after
+ * fallback and reference resolution. Keys are sorted, so the same messages
+ * always produce the same bytes and the same ETag.
+ */
+public final class I18nBundleExport {
+    private static final Gson GSON = new GsonBuilder()
+            .disableHtmlEscaping()
+            .create();
+
+    static I18nBundleExport of(Locale locale, I18nPath prefix, Map<String, String> templates) {
+        expectNonNull(locale, "locale");
+        expectNonNull(prefix, "prefix");
+        expectNonNull(templates, "templates");
+        byte[] json = GSON.toJson(templates).getBytes(UTF_8);
+        return new I18nBundleExport(locale, prefix, json, templates.size());
+    }
+
+    private final Locale locale;
+    private final I18nPath prefix;
+    private final byte[] json;
+    private final String etag;
+    private final int size;
+    private volatile byte[] gzippedJson;
+
+    private I18nBundleExport(Locale locale, I18nPath prefix, byte[] json, int size) {
+        this.locale = locale;
+        this.prefix = prefix;
+        this.json = json;
+        this.etag = '"' + sha256(json) + '"';
+        this.size = size;
+    }
+
+    @NotNull
+    public Locale getLocale() {
+        return locale;
+    }
+
+    @NotNull
+    public I18nPath getPrefix() {
+        return prefix;
+    }
+
+    /**
+     * Number of exported messages.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Strong ETag (with quotes) computed from the JSON content.
+     */
+    @NotNull
+    public String getEtag() {
+        return etag;
+    }
+
+    @NotNull
+    public String getJson() {
+        return new String(json, UTF_8);
+    }
+
+    /**
+     * Returns a copy of UTF-8 encoded JSON. Use {@link #asByteBuffer()} or {@link #writeTo(OutputStream)} to skip copying.
+     */
+    @NotNull
+    public byte[] getJsonBytes() {
+        return json.clone();
+    }
+
+    @NotNull
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(json).asReadOnlyBuffer();
+    }
+
+    public void writeTo(@NotNull OutputStream out) {
+        expectNonNull(out, "out");
+        write(out, json);
+    }
+
+    /**
+     * Writes gzipped JSON. Compressed content is created on first use and reused.
+     */
+    public void writeGzippedTo(@NotNull OutputStream out) {
+        expectNonNull(out, "out");
+        write(out, getGzippedJson());
+    }
+
+    private byte[] getGzippedJson() {
+        byte[] result = gzippedJson;
+        if (result == null) {
+            result = gzip(json);
+            gzippedJson = result;
+        }
+        return result;
+    }
+
+    private static void write(OutputStream out, byte[] bytes) {
+        try {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream(bytes.length / 2 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(result)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result.toByteArray();
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Missing SHA-256 algorithm", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "I18nBundleExport{" +
+                "locale=" + locale +
+                ", prefix=" + prefix +
+                ", size=" + size +
+                ", etag=" + etag +
+                '}';
+    }
+}
@@ -1,8 +1,10 @@
 package com.coditory.quark.i18n;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 
 import static com.coditory.quark.i18n.Preconditions.expectNonNull;
 
@@ -37,7 +39,18 @@ final class I18nKeyGenerator {
         expectNonNull(key, "key");
         expectNonNull(prefixes, "prefixes");
         List<Locale> locales = localeResolver.getLocaleHierarchy(key.locale());
-        I18nPath path = key.path();
+        return keys(locales, key.path(), prefixes);
+    }
+
+    List<I18nKey> keys(List<Locale> locales, I18nPath path, I18nPath prefix) {
+        expectNonNull(locales, "locales");
+        expectNonNull(path, "path");
+        return prefix == null || prefix.isRoot()
+                ? keys(locales, path, List.of())
+                : keys(locales, path, List.of(prefix));
+    }
+
+    private List<I18nKey> keys(List<Locale> locales, I18nPath path, List<I18nPath> prefixes) {
         List<I18nKey> keys = new ArrayList<>(6 * (1 + prefixes.size() + globalPrefixes.size()));
         // locales x prefix + path
         for (I18nPath prefix : prefixes) {
@@ -73,4 +86,24 @@ final class I18nKeyGenerator {
         }
         return keys;
     }
+
+    Set<I18nPath> queryPaths(I18nPath storedPath, I18nPath prefix) {
+        expectNonNull(storedPath, "storedPath");
+        Set<I18nPath> result = new HashSet<>();
+        result.add(storedPath);
+        if (prefix != null && !prefix.isRoot()) {
+            addRelativePath(result, storedPath, prefix);
+        }
+        for (I18nPath globalPrefix : globalPrefixes) {
+            addRelativePath(result, storedPath, globalPrefix);
+        }
+        return result;
+    }
+
+    private void addRelativePath(Set<I18nPath> result, I18nPath storedPath, I18nPath prefix) {
+        I18nPath relative = storedPath.relativeTo(prefix);
+        if (relative != null && !relative.isRoot()) {
+            result.add(relative);
+        }
+    }
 }
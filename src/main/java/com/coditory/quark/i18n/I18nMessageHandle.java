@@ -0,0 +1,43 @@
+package com.coditory.quark.i18n;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.Map;
+
+import static com.coditory.quark.i18n.I18nMessages.EMPTY_ARGS;
+import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+
+/**
+ * Message with a path resolved upfront for all locales.
+ * Use it for frequently rendered messages to skip path parsing and key lookup.
+ */
+public interface I18nMessageHandle {
+    @NotNull
+    I18nPath getPath();
+
+    @NotNull
+    String getMessage(@NotNull Locale locale, Object... args);
+
+    @NotNull
+    String getMessage(@NotNull Locale locale, @NotNull Map<String, Object> args);
+
+    @Nullable
+    String getMessageOrNull(@NotNull Locale locale, Object... args);
+
+    @Nullable
+    String getMessageOrNull(@NotNull Locale locale, @NotNull Map<String, Object> args);
+
+    @NotNull
+    default String getMessage(@NotNull Locale locale) {
+        expectNonNull(locale, "locale");
+        return getMessage(locale, EMPTY_ARGS);
+    }
+
+    @Nullable
+    default String getMessageOrNull(@NotNull Locale locale) {
+        expectNonNull(locale, "locale");
+        return getMessageOrNull(locale, EMPTY_ARGS);
+    }
+}
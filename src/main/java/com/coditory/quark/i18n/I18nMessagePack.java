@@ -3,12 +3,22 @@ package com.coditory.quark.i18n;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.stream.Stream;
 
 import static com.coditory.quark.i18n.I18nMessages.EMPTY_ARGS;
 import static com.coditory.quark.i18n.Preconditions.expectNonBlank;
 import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.unmodifiableMap;
 
 public interface I18nMessagePack {
     static I18nMessagePackBuilder builder() {
@@ -98,12 +108,202 @@ public interface I18nMessagePack {
         return getMessageOrNull(locale, key, EMPTY_ARGS);
     }
 
+    /**
+     * Resolves messages for multiple paths in the same locale. Locale is resolved once for the whole batch.
+     * Returned map preserves the order of paths. Missing messages are passed to the missing message handler.
+     */
+    @NotNull
+    default Map<I18nPath, String> resolveAll(@NotNull Locale locale, @NotNull Collection<I18nPath> paths, Object... args) {
+        expectNonNull(locale, "locale");
+        expectNonNull(paths, "paths");
+        expectNonNull(args, "args");
+        Map<I18nPath, String> result = new LinkedHashMap<>();
+        for (I18nPath path : paths) {
+            expectNonNull(path, "path");
+            result.put(path, getMessage(I18nKey.of(locale, path), args));
+        }
+        return unmodifiableMap(result);
+    }
+
+    /**
+     * Renders one message for many rows of indexed arguments.
+     * Message is looked up once and rows are rendered with a single formatter.
+     */
+    @NotNull
+    default List<String> formatAll(@NotNull I18nKey key, @NotNull List<Object[]> rows) {
+        expectNonNull(key, "key");
+        expectNonNull(rows, "rows");
+        return rows.stream()
+                .map(args -> getMessage(key, args))
+                .toList();
+    }
+
+    /**
+     * Same as {@link #formatAll(I18nKey, List)}, but large batches are split into chunks
+     * rendered in the common fork-join pool.
+     */
+    @NotNull
+    default List<String> formatAllParallel(@NotNull I18nKey key, @NotNull List<Object[]> rows) {
+        expectNonNull(key, "key");
+        expectNonNull(rows, "rows");
+        return rows.parallelStream()
+                .map(args -> getMessage(key, args))
+                .toList();
+    }
+
+    /**
+     * Lazily renders one message for a stream of rows. Message is looked up once.
+     */
+    @NotNull
+    default Stream<String> formatAll(@NotNull I18nKey key, @NotNull Stream<Object[]> rows) {
+        expectNonNull(key, "key");
+        expectNonNull(rows, "rows");
+        return rows.map(args -> getMessage(key, args));
+    }
+
+    default void formatTo(@NotNull Appendable out, @NotNull I18nKey key, Object... args) {
+        expectNonNull(out, "out");
+        String message = getMessage(key, args);
+        try {
+            out.append(message);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    default void formatTo(@NotNull Appendable out, @NotNull I18nKey key, @NotNull Map<String, Object> args) {
+        expectNonNull(out, "out");
+        String message = getMessage(key, args);
+        try {
+            out.append(message);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    default void formatTo(@NotNull Appendable out, @NotNull Locale locale, @NotNull String path, Object... args) {
+        expectNonNull(out, "out");
+        expectNonNull(locale, "locale");
+        expectNonBlank(path, "path");
+        expectNonNull(args, "args");
+        I18nKey messageKey = I18nKey.of(locale, path);
+        formatTo(out, messageKey, args);
+    }
+
+    default void formatTo(@NotNull Appendable out, @NotNull Locale locale, @NotNull String path, @NotNull Map<String, Object> args) {
+        expectNonNull(out, "out");
+        expectNonNull(locale, "locale");
+        expectNonBlank(path, "path");
+        expectNonNull(args, "args");
+        I18nKey messageKey = I18nKey.of(locale, path);
+        formatTo(out, messageKey, args);
+    }
+
+    default void formatTo(@NotNull Appendable out, @NotNull Locale locale, @NotNull I18nPath path, Object... args) {
+        expectNonNull(out, "out");
+        expectNonNull(locale, "locale");
+        expectNonNull(path, "path");
+        expectNonNull(args, "args");
+        I18nKey messageKey = I18nKey.of(locale, path);
+        formatTo(out, messageKey, args);
+    }
+
+    /**
+     * Writes UTF-8 encoded message. Static messages are encoded once, when the pack is built.
+     */
+    default void writeUtf8(@NotNull OutputStream out, @NotNull I18nKey key, Object... args) {
+        expectNonNull(out, "out");
+        byte[] bytes = getMessage(key, args).getBytes(UTF_8);
+        try {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes UTF-8 encoded message. Static messages are encoded once, when the pack is built.
+     *
+     * @throws java.nio.BufferOverflowException if there is not enough space in the buffer
+     */
+    default void writeUtf8(@NotNull ByteBuffer out, @NotNull I18nKey key, Object... args) {
+        expectNonNull(out, "out");
+        out.put(getMessage(key, args).getBytes(UTF_8));
+    }
+
+    default void writeUtf8(@NotNull OutputStream out, @NotNull Locale locale, @NotNull String path, Object... args) {
+        expectNonNull(out, "out");
+        expectNonNull(locale, "locale");
+        expectNonBlank(path, "path");
+        expectNonNull(args, "args");
+        I18nKey messageKey = I18nKey.of(locale, path);
+        writeUtf8(out, messageKey, args);
+    }
+
+    default void writeUtf8(@NotNull ByteBuffer out, @NotNull Locale locale, @NotNull String path, Object... args) {
+        expectNonNull(out, "out");
+        expectNonNull(locale, "locale");
+        expectNonBlank(path, "path");
+        expectNonNull(args, "args");
+        I18nKey messageKey = I18nKey.of(locale, path);
+        writeUtf8(out, messageKey, args);
+    }
+
+    @NotNull
+    default I18nMessageHandle handle(@NotNull I18nPath path) {
+        return new DelegatingI18nMessageHandle(this, path);
+    }
+
+    @NotNull
+    default I18nMessageHandle handle(@NotNull String path) {
+        expectNonBlank(path, "path");
+        return handle(I18nPath.of(path));
+    }
+
     @NotNull
     String format(@NotNull Locale locale, @NotNull String template, Object... args);
 
     @NotNull
     String format(@NotNull Locale locale, @NotNull String template, @NotNull Map<String, Object> args);
 
+    /**
+     * Exports effective templates for a locale and paths under the prefix as JSON.
+     * Exported bundles are cached, so they are serialized once per message pack (and once per reload).
+     *
+     * @throws UnsupportedOperationException if the message pack does not expose its templates
+     */
+    @NotNull
+    default I18nBundleExport exportBundle(@NotNull Locale locale, @NotNull I18nPath prefix) {
+        throw new UnsupportedOperationException("Bundle export is not supported by: " + getClass().getName());
+    }
+
+    @NotNull
+    default I18nBundleExport exportBundle(@NotNull Locale locale, @NotNull String prefix) {
+        expectNonNull(locale, "locale");
+        expectNonNull(prefix, "prefix");
+        return exportBundle(locale, prefix.isBlank() ? I18nPath.root() : I18nPath.of(prefix));
+    }
+
+    /**
+     * Returns statistics of the cache of templates parsed by format methods.
+     * Cache is shared with packs created by {@link #prefixQueries(I18nPath)}.
+     * Returns empty statistics when the message pack does not cache templates.
+     */
+    @NotNull
+    default I18nTemplateCacheStats getTemplateCacheStats() {
+        return new I18nTemplateCacheStats(0, 0, 0, 0);
+    }
+
+    /**
+     * Returns warm-up reports of locales warmed up so far (see {@link I18nMessagePackBuilder#warmUp(Locale...)}).
+     * Reports of a warm-up on an executor appear when the locale is done.
+     * Returns an empty map when warm-up is disabled.
+     */
+    @NotNull
+    default Map<Locale, I18nWarmUpReport> getWarmUpReports() {
+        return Map.of();
+    }
+
     @NotNull
     I18nMessages localize(@NotNull Locale locale);
 
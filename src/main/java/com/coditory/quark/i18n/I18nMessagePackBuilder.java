@@ -3,19 +3,24 @@ package com.coditory.quark.i18n;
 import com.coditory.quark.i18n.loader.I18nLoader;
 import com.coditory.quark.i18n.loader.I18nMessageBundle;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.nio.file.FileSystem;
 import java.nio.file.FileSystems;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 import static com.coditory.quark.i18n.I18nArgTransformers.javaTimeI18nArgTransformers;
+import static com.coditory.quark.i18n.Preconditions.expect;
 import static com.coditory.quark.i18n.Preconditions.expectNonBlank;
 import static com.coditory.quark.i18n.Preconditions.expectNonNull;
 
@@ -24,12 +29,20 @@ public final class I18nMessagePackBuilder {
     private final List<I18nPath> referenceFallbackPaths = new ArrayList<>();
     private final List<I18nPath> messageFallbackPaths = new ArrayList<>();
     private final List<I18nArgTransformer<?>> argTransformers = new ArrayList<>();
+    private final Set<Locale> warmUpLocales = new LinkedHashSet<>();
     private I18nMissingMessageHandler missingMessageHandler = I18nMissingMessageHandler.errorThrowingHandler();
     private Locale defaultLocale;
     private boolean transformJava8TimeTypes = true;
     private boolean normalizeWhitespaces = false;
     private boolean resolveReferences = true;
     private I18nMissingMessagesDetector missingMessagesDetector;
+    private boolean warmUp = false;
+    private Executor warmUpExecutor;
+    private int templateCacheCapacity = MessageTemplateCache.DEFAULT_CAPACITY;
+    private boolean lazyCompilation = false;
+    private Executor lazyCompilationValidationExecutor;
+    private int compilationParallelism = 1;
+    private Executor compilationExecutor;
 
     I18nMessagePackBuilder() {
         // package protected constructor
@@ -47,6 +60,14 @@ public final class I18nMessagePackBuilder {
         builder.normalizeWhitespaces = normalizeWhitespaces;
         builder.resolveReferences = resolveReferences;
         builder.missingMessagesDetector = missingMessagesDetector;
+        builder.warmUpLocales.addAll(warmUpLocales);
+        builder.warmUp = warmUp;
+        builder.warmUpExecutor = warmUpExecutor;
+        builder.templateCacheCapacity = templateCacheCapacity;
+        builder.lazyCompilation = lazyCompilation;
+        builder.lazyCompilationValidationExecutor = lazyCompilationValidationExecutor;
+        builder.compilationParallelism = compilationParallelism;
+        builder.compilationExecutor = compilationExecutor;
         return builder;
     }
 
@@ -161,6 +182,100 @@ public final class I18nMessagePackBuilder {
         return this;
     }
 
+    /**
+     * Creates locale specific formats for all messages resolved in given locales when the pack is built or reloaded.
+     */
+    @NotNull
+    public I18nMessagePackBuilder warmUp(@NotNull Locale... locales) {
+        expectNonNull(locales, "locales");
+        expect(locales.length > 0, "Expected at least one locale");
+        for (Locale locale : locales) {
+            expectNonNull(locale, "locale");
+            this.warmUpLocales.add(locale);
+        }
+        this.warmUp = true;
+        return this;
+    }
+
+    /**
+     * Creates locale specific formats for all messages in all available locales when the pack is built or reloaded.
+     */
+    @NotNull
+    public I18nMessagePackBuilder warmUpAllLocales() {
+        this.warmUpLocales.clear();
+        this.warmUp = true;
+        return this;
+    }
+
+    /**
+     * Runs the warm-up in the background, one task per locale.
+     * Without an executor the warm-up blocks the build.
+     */
+    @NotNull
+    public I18nMessagePackBuilder setWarmUpExecutor(@NotNull Executor executor) {
+        expectNonNull(executor, "executor");
+        this.warmUpExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Sets the number of templates parsed by format methods that are cached per message pack.
+     * Use 0 to disable the cache. Cache is cleared when the message pack is reloaded.
+     */
+    @NotNull
+    public I18nMessagePackBuilder setTemplateCacheCapacity(int capacity) {
+        expect(capacity >= 0, "Expected capacity >= 0. Got: " + capacity);
+        this.templateCacheCapacity = capacity;
+        return this;
+    }
+
+    /**
+     * Compiles message templates on first use instead of when the pack is built or reloaded.
+     * Invalid templates are reported when they are resolved.
+     */
+    @NotNull
+    public I18nMessagePackBuilder compileTemplatesLazily() {
+        this.lazyCompilation = true;
+        this.lazyCompilationValidationExecutor = null;
+        return this;
+    }
+
+    /**
+     * Compiles message templates on first use and compiles all of them in the background
+     * when the pack is built or reloaded. Invalid templates are logged.
+     */
+    @NotNull
+    public I18nMessagePackBuilder compileTemplatesLazily(@NotNull Executor validationExecutor) {
+        expectNonNull(validationExecutor, "validationExecutor");
+        this.lazyCompilation = true;
+        this.lazyCompilationValidationExecutor = validationExecutor;
+        return this;
+    }
+
+    /**
+     * Compiles message templates on a dedicated ForkJoinPool when the pack is built or reloaded.
+     * Result and reported errors are the same as in sequential compilation.
+     */
+    @NotNull
+    public I18nMessagePackBuilder setCompilationParallelism(int parallelism) {
+        expect(parallelism > 0, "Expected parallelism > 0. Got: " + parallelism);
+        this.compilationParallelism = parallelism;
+        this.compilationExecutor = null;
+        return this;
+    }
+
+    /**
+     * Compiles message templates on the executor when the pack is built or reloaded.
+     * Build waits for the compilation to finish.
+     */
+    @NotNull
+    public I18nMessagePackBuilder setCompilationExecutor(@NotNull Executor executor) {
+        expectNonNull(executor, "executor");
+        this.compilationExecutor = executor;
+        this.compilationParallelism = 1;
+        return this;
+    }
+
     @NotNull
     public I18nMessagePackBuilder usePathOnMissingMessage() {
         this.missingMessageHandler = I18nMissingMessageHandler.pathPrintingHandler();
@@ -321,7 +436,7 @@ public final class I18nMessagePackBuilder {
     @NotNull
     public I18nMessagePack build() {
         List<I18nMessageBundle> bundles = loader.load();
-        return build(bundles);
+        return build(bundles, null);
     }
 
     @NotNull
@@ -345,31 +460,77 @@ public final class I18nMessagePackBuilder {
         return messagePack;
     }
 
-    private I18nMessagePack build(List<I18nMessageBundle> bundles) {
+    private I18nMessagePack build(List<I18nMessageBundle> bundles, @Nullable I18nMessagePack previous) {
         bundles = TemplatesBundlePrefixes.prefix(bundles);
         detectMissingMessages(bundles);
         LocaleResolver localeResolver = LocaleResolver.of(defaultLocale, bundles);
         I18nKeyGenerator messageKeyGenerator = new I18nKeyGenerator(defaultLocale, messageFallbackPaths, localeResolver);
-        MessageTemplateParser parser = buildMessageTemplateParser(bundles, localeResolver);
-        Map<I18nKey, MessageTemplate> templates = parser.parseTemplates(bundles);
-        return new ImmutableI18nMessagePack(templates, parser, missingMessageHandler, messageKeyGenerator);
+        MessageTemplateParser parser = buildMessageTemplateParser(bundles, localeResolver, previous);
+        Map<I18nKey, LocalizedMessageTemplate> templates = parseTemplates(parser, bundles, previous);
+        MessageTemplateCache templateCache = new MessageTemplateCache(templateCacheCapacity);
+        ImmutableI18nMessagePack messagePack = new ImmutableI18nMessagePack(templates, parser, missingMessageHandler, messageKeyGenerator, localeResolver, templateCache);
+        if (lazyCompilationValidationExecutor != null) {
+            new MessagePackValidation(lazyCompilationValidationExecutor).validate(messagePack);
+        }
+        if (warmUp) {
+            new MessagePackWarmUp(List.copyOf(warmUpLocales), warmUpExecutor).warmUp(messagePack);
+        }
+        return messagePack;
     }
 
-    private MessageTemplateParser buildMessageTemplateParser(List<I18nMessageBundle> bundles, LocaleResolver localeResolver) {
+    private Map<I18nKey, LocalizedMessageTemplate> parseTemplates(
+            MessageTemplateParser parser,
+            List<I18nMessageBundle> bundles,
+            @Nullable I18nMessagePack previous
+    ) {
+        ForkJoinPool pool = compilationExecutor == null && compilationParallelism > 1
+                ? new ForkJoinPool(compilationParallelism)
+                : null;
+        Executor executor = pool != null ? pool : compilationExecutor;
+        try {
+            Map<I18nKey, LocalizedMessageTemplate> templates = previous instanceof ImmutableI18nMessagePack previousPack
+                    ? parser.parseChangedTemplates(bundles, previousPack.getParser(), previousPack.getDefinedTemplates(), lazyCompilation, executor)
+                    : null;
+            if (templates != null) {
+                return templates;
+            }
+            return lazyCompilation
+                    ? parser.parseTemplatesLazily(bundles)
+                    : parser.parseTemplates(bundles, executor);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private MessageTemplateParser buildMessageTemplateParser(
+            List<I18nMessageBundle> bundles,
+            LocaleResolver localeResolver,
+            @Nullable I18nMessagePack previous
+    ) {
         I18nKeyGenerator referenceKeyGenerator = new I18nKeyGenerator(defaultLocale, referenceFallbackPaths, localeResolver);
         ReferenceResolver referenceResolver = new ReferenceResolver(bundles, referenceKeyGenerator, resolveReferences);
-        ArgumentResolver argumentResolver = buildArgumentResolver();
         MessageTemplateNormalizer messageTemplateNormalizer = new MessageTemplateNormalizer(normalizeWhitespaces);
-        return new MessageTemplateParser(referenceResolver, argumentResolver, messageTemplateNormalizer);
+        // reused templates keep formats of the previous build, so all templates must share them
+        MessageTemplateParser previousParser = previous instanceof ImmutableI18nMessagePack previousPack
+                ? previousPack.getParser()
+                : null;
+        ArgumentResolver argumentResolver = previousParser != null
+                ? previousParser.getArgumentResolver()
+                : buildArgumentResolver();
+        SharedFormats sharedFormats = previousParser != null
+                ? previousParser.getSharedFormats()
+                : new SharedFormats(transformJava8TimeTypes);
+        return new MessageTemplateParser(referenceResolver, argumentResolver, messageTemplateNormalizer, sharedFormats);
     }
 
     private ArgumentResolver buildArgumentResolver() {
-        List<I18nArgTransformer<?>> result = new ArrayList<>();
-        if (transformJava8TimeTypes) {
-            result.addAll(javaTimeI18nArgTransformers());
-        }
-        result.addAll(argTransformers);
-        return ArgumentResolver.of(result);
+        // java time values are formatted natively, conversion is needed only for ICU MessageFormat
+        List<I18nArgTransformer<?>> icuTransformers = transformJava8TimeTypes
+                ? javaTimeI18nArgTransformers()
+                : List.of();
+        return ArgumentResolver.of(argTransformers, icuTransformers);
     }
 
     private void detectMissingMessages(List<I18nMessageBundle> bundles) {
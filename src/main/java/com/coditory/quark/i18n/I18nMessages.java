@@ -3,6 +3,7 @@ package com.coditory.quark.i18n;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
 import java.util.Locale;
 import java.util.Map;
 
@@ -45,6 +46,16 @@ public final class I18nMessages {
         return messagePack.getMessageOrNull(locale, path);
     }
 
+    /**
+     * Resolves messages for multiple paths in one call. Returned map preserves the order of paths.
+     */
+    @NotNull
+    public Map<I18nPath, String> getMessages(@NotNull Collection<I18nPath> paths, Object... args) {
+        expectNonNull(paths, "paths");
+        expectNonNull(args, "args");
+        return messagePack.resolveAll(locale, paths, args);
+    }
+
     @NotNull
     public String getMessage(@NotNull String key, Object... args) {
         expectNonBlank(key, "key");
@@ -85,6 +96,27 @@ public final class I18nMessages {
         return messagePack.getMessageOrNull(locale, key);
     }
 
+    public void formatTo(@NotNull Appendable out, @NotNull I18nPath path, Object... args) {
+        expectNonNull(out, "out");
+        expectNonNull(path, "path");
+        expectNonNull(args, "args");
+        messagePack.formatTo(out, locale, path, args);
+    }
+
+    public void formatTo(@NotNull Appendable out, @NotNull String key, Object... args) {
+        expectNonNull(out, "out");
+        expectNonBlank(key, "key");
+        expectNonNull(args, "args");
+        messagePack.formatTo(out, locale, key, args);
+    }
+
+    public void formatTo(@NotNull Appendable out, @NotNull String key, @NotNull Map<String, Object> args) {
+        expectNonNull(out, "out");
+        expectNonBlank(key, "key");
+        expectNonNull(args, "args");
+        messagePack.formatTo(out, locale, key, args);
+    }
+
     @NotNull
     public I18nMessages prefixQueries(@NotNull String prefix) {
         return messagePack.prefixQueries(prefix).localize(locale);
@@ -1,32 +1,30 @@
 package com.coditory.quark.i18n;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
-import java.util.Set;
-import java.util.StringTokenizer;
-import java.util.function.Supplier;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.coditory.quark.i18n.Preconditions.expectNonNull;
-import static java.util.stream.Collectors.toList;
-import static java.util.stream.Collectors.toSet;
 
+/**
+ * Paths are interned in a trie of segments. Each node keeps a reference to its parent,
+ * so creating a child path does not copy segments, and equal paths are usually the same instance.
+ * Children are referenced weakly, so paths that are no longer used (like lookups of missing keys) are collected.
+ * Parsed string paths are kept in a bounded cache, so repeated lookups by string do not allocate.
+ */
 public final class I18nPath {
-    private static final Set<Integer> WHITELIST_CHARS = (
-            "ABCDEFGHIJKLMNOPQRSTUVWXYZ" +
-                    "abcdefghijklmnopqrstuvwxyz" +
-                    "0123456789" +
-                    "-_"
-    )
-            .chars()
-            .boxed()
-            .collect(toSet());
-    private static final String SEPARATOR = ".";
-    private static final I18nPath ROOT = new I18nPath(List.of());
+    private static final char SEPARATOR = '.';
+    private static final I18nPath ROOT = new I18nPath(null, "");
+    private static final LruCache<String, I18nPath> PARSE_CACHE = new LruCache<>(4096);
+    private static final ReferenceQueue<I18nPath> COLLECTED_CHILDREN = new ReferenceQueue<>();
 
     @NotNull
     static public I18nPath root() {
@@ -59,11 +57,37 @@ public final class I18nPath {
 
     @NotNull
     static public I18nPath of(@NotNull String path) {
-        validate(path);
-        return create(split(path));
+        expectNonNull(path, "path");
+        I18nPath cached = PARSE_CACHE.get(path);
+        if (cached != null) {
+            return cached;
+        }
+        I18nPath result = parse(path);
+        PARSE_CACHE.put(path, result);
+        return result;
     }
 
     static public void validate(@NotNull String path) {
+        // validation does not intern the path
+        validateValue(path);
+    }
+
+    static private I18nPath parse(String path) {
+        validateValue(path);
+        I18nPath result = ROOT;
+        int start = 0;
+        for (int i = 0; i < path.length(); ++i) {
+            if (path.charAt(i) == SEPARATOR) {
+                result = result.childSegment(path.substring(start, i));
+                start = i + 1;
+            }
+        }
+        return start < path.length()
+                ? result.childSegment(path.substring(start))
+                : result;
+    }
+
+    static private void validateValue(String path) {
         expectNonNull(path, "path");
         if (path.contains("..")) {
             throw new IllegalArgumentException("Path must not contain: \"..\"");
@@ -74,48 +98,124 @@ public final class I18nPath {
         if (path.endsWith(".")) {
             throw new IllegalArgumentException("Path must not end with: \".\"");
         }
-        validate(split(path));
+        int start = 0;
+        for (int i = 0; i < path.length(); ++i) {
+            char c = path.charAt(i);
+            if (c == SEPARATOR) {
+                start = i + 1;
+            } else if (!isValidChar(c)) {
+                int end = path.indexOf(SEPARATOR, i);
+                String segment = path.substring(start, end < 0 ? path.length() : end);
+                throw invalidCharacter(c, segment, path);
+            }
+        }
     }
 
     static private void validate(@NotNull List<String> segments) {
         expectNonNull(segments, "segments");
-        segments.forEach(segment -> validateSegment(segment, segments));
+        for (String segment : segments) {
+            expectNonNull(segment, "segment");
+            for (int i = 0; i < segment.length(); ++i) {
+                char c = segment.charAt(i);
+                if (!isValidChar(c)) {
+                    throw invalidCharacter(c, segment, String.join(String.valueOf(SEPARATOR), segments));
+                }
+            }
+        }
+    }
+
+    static private boolean isValidChar(char c) {
+        return (c >= 'a' && c <= 'z')
+                || (c >= 'A' && c <= 'Z')
+                || (c >= '0' && c <= '9')
+                || c == '-'
+                || c == '_';
     }
 
-    static private void validateSegment(@NotNull String segment, List<String> segments) {
-        expectNonNull(segment, "segment");
-        Supplier<String> path = () -> String.join(SEPARATOR, segments);
-        for (int c : segment.toCharArray()) {
-            if (!WHITELIST_CHARS.contains(c)) {
-                throw new IllegalArgumentException("Invalid character '" + (char) c + "' in path segment: " + segment
-                        + " in path: " + path.get());
+    static private IllegalArgumentException invalidCharacter(char c, String segment, String path) {
+        return new IllegalArgumentException("Invalid character '" + c + "' in path segment: " + segment
+                + " in path: " + path);
+    }
+
+    static private I18nPath create(List<String> segments) {
+        I18nPath result = ROOT;
+        for (String segment : segments) {
+            // empty segments are skipped, so only root has an empty path
+            if (!segment.isEmpty()) {
+                result = result.childSegment(segment);
             }
         }
+        return result;
     }
 
-    static private List<String> split(String path) {
-        expectNonNull(path, "path");
-        if (path.equals(SEPARATOR)) {
-            return Arrays.asList("", "");
+    private final I18nPath parent;
+    private final String segment;
+    private final String path;
+    private final int hash;
+    private final int depth;
+    private volatile ConcurrentHashMap<String, ChildReference> children;
+    private volatile List<String> segments;
+
+    private I18nPath(I18nPath parent, String segment) {
+        this.parent = parent;
+        this.segment = segment;
+        this.depth = parent == null ? 0 : parent.depth + 1;
+        this.path = parent == null || parent.depth == 0
+                ? segment
+                : parent.path + SEPARATOR + segment;
+        this.hash = path.hashCode();
+    }
+
+    private I18nPath childSegment(String segment) {
+        removeCollectedChildren();
+        ConcurrentHashMap<String, ChildReference> children = this.children;
+        if (children == null) {
+            synchronized (this) {
+                children = this.children;
+                if (children == null) {
+                    children = new ConcurrentHashMap<>();
+                    this.children = children;
+                }
+            }
+        }
+        while (true) {
+            ChildReference reference = children.get(segment);
+            I18nPath child = reference != null ? reference.get() : null;
+            if (child != null) {
+                return child;
+            }
+            I18nPath created = new I18nPath(this, segment);
+            ChildReference createdReference = new ChildReference(created);
+            boolean stored = reference == null
+                    ? children.putIfAbsent(segment, createdReference) == null
+                    : children.replace(segment, reference, createdReference);
+            if (stored) {
+                return created;
+            }
         }
-        return Collections.list(new StringTokenizer(path, SEPARATOR)).stream()
-                .map(token -> (String) token)
-                .collect(toList());
     }
 
-    static private I18nPath create(List<String> segments) {
-        return segments.isEmpty()
-                ? ROOT
-                : new I18nPath(segments);
+    private static void removeCollectedChildren() {
+        Reference<? extends I18nPath> reference = COLLECTED_CHILDREN.poll();
+        while (reference != null) {
+            ChildReference child = (ChildReference) reference;
+            ConcurrentHashMap<String, ChildReference> siblings = child.parent.children;
+            if (siblings != null) {
+                siblings.remove(child.segment, child);
+            }
+            reference = COLLECTED_CHILDREN.poll();
+        }
     }
 
-    private final String path;
-    private final List<String> segments;
+    private static final class ChildReference extends WeakReference<I18nPath> {
+        private final I18nPath parent;
+        private final String segment;
 
-    private I18nPath(List<String> segments) {
-        expectNonNull(segments, "segments");
-        this.path = String.join(SEPARATOR, segments);
-        this.segments = List.copyOf(segments);
+        ChildReference(I18nPath child) {
+            super(child, COLLECTED_CHILDREN);
+            this.parent = child.parent;
+            this.segment = child.segment;
+        }
     }
 
     public boolean isRoot() {
@@ -132,15 +232,25 @@ public final class I18nPath {
 
     @NotNull
     public List<String> getSegments() {
-        return segments;
+        List<String> result = this.segments;
+        if (result == null) {
+            List<String> segments = new ArrayList<>(depth);
+            for (I18nPath node = this; node.depth > 0; node = node.parent) {
+                segments.add(node.segment);
+            }
+            Collections.reverse(segments);
+            result = List.copyOf(segments);
+            this.segments = result;
+        }
+        return result;
     }
 
     @NotNull
     public String getLastSegment() {
-        if (segments.isEmpty()) {
+        if (depth == 0) {
             throw new IllegalStateException("Empty path");
         }
-        return segments.get(segments.size() - 1);
+        return segment;
     }
 
     @NotNull
@@ -149,20 +259,29 @@ public final class I18nPath {
         if (subPath.isRoot()) {
             return this;
         }
-        List<String> newPath = new ArrayList<>();
-        newPath.addAll(segments);
-        newPath.addAll(subPath.segments);
-        return new I18nPath(newPath);
+        return child(subPath.parent).childSegment(subPath.segment);
     }
 
     @NotNull
     public I18nPath parentOrRoot() {
-        if (segments.isEmpty()) {
-            return ROOT;
+        return depth == 0 ? ROOT : parent;
+    }
+
+    @Nullable
+    I18nPath relativeTo(@NotNull I18nPath prefix) {
+        expectNonNull(prefix, "prefix");
+        if (prefix.depth > depth) {
+            return null;
+        }
+        I18nPath ancestor = this;
+        while (ancestor.depth > prefix.depth) {
+            ancestor = ancestor.parent;
+        }
+        if (!ancestor.equals(prefix)) {
+            return null;
         }
-        List<String> parentSegments = new ArrayList<>(segments);
-        parentSegments.remove(parentSegments.size() - 1);
-        return new I18nPath(parentSegments);
+        List<String> segments = getSegments();
+        return create(segments.subList(prefix.depth, segments.size()));
     }
 
     @NotNull
@@ -175,12 +294,12 @@ public final class I18nPath {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         I18nPath i18nPath = (I18nPath) o;
-        return Objects.equals(path, i18nPath.path);
+        return hash == i18nPath.hash && path.equals(i18nPath.path);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(path);
+        return hash;
     }
 
     public String toShortString() {
@@ -0,0 +1,16 @@
+package com.coditory.quark.i18n;
+
+/**
+ * Statistics of the cache of templates parsed by {@link I18nMessagePack#format(java.util.Locale, String, Object...)}.
+ * Statistics are reset when a reloadable message pack is reloaded.
+ */
+public record I18nTemplateCacheStats(long hits, long misses, int size, int capacity) {
+    public long requests() {
+        return hits + misses;
+    }
+
+    public double hitRate() {
+        long requests = requests();
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,31 @@
+package com.coditory.quark.i18n;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+
+/**
+ * Result of warming up message formats for a locale.
+ * Errors contain templates that could not be compiled (with lazy compilation) or warmed up.
+ */
+public record I18nWarmUpReport(
+        @NotNull Locale locale,
+        @NotNull Duration duration,
+        int templates,
+        @NotNull List<RuntimeException> errors
+) {
+    public I18nWarmUpReport(Locale locale, Duration duration, int templates, List<RuntimeException> errors) {
+        this.locale = expectNonNull(locale, "locale");
+        this.duration = expectNonNull(duration, "duration");
+        this.templates = templates;
+        this.errors = List.copyOf(expectNonNull(errors, "errors"));
+    }
+
+    public boolean hasErrors() {
+        return !errors.isEmpty();
+    }
+}
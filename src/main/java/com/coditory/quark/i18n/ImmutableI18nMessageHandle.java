@@ -0,0 +1,84 @@
+package com.coditory.quark.i18n;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.Map;
+
+import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+
+final class ImmutableI18nMessageHandle implements I18nMessageHandle {
+    private final I18nPath path;
+    private final LocalizedMessageTemplate[] templates;
+    private final LocaleResolver localeResolver;
+    private final I18nMissingMessageHandler unresolvedMessageHandler;
+
+    ImmutableI18nMessageHandle(
+            I18nPath path,
+            LocalizedMessageTemplate[] templates,
+            LocaleResolver localeResolver,
+            I18nMissingMessageHandler unresolvedMessageHandler
+    ) {
+        this.path = expectNonNull(path, "path");
+        this.templates = expectNonNull(templates, "templates");
+        this.localeResolver = expectNonNull(localeResolver, "localeResolver");
+        this.unresolvedMessageHandler = expectNonNull(unresolvedMessageHandler, "unresolvedMessageHandler");
+    }
+
+    @NotNull
+    @Override
+    public I18nPath getPath() {
+        return path;
+    }
+
+    @NotNull
+    @Override
+    public String getMessage(@NotNull Locale locale, Object... args) {
+        String result = getMessageOrNull(locale, args);
+        return result == null
+                ? unresolvedMessageHandler.onUnresolvedMessage(I18nKey.of(locale, path), args)
+                : result;
+    }
+
+    @NotNull
+    @Override
+    public String getMessage(@NotNull Locale locale, @NotNull Map<String, Object> args) {
+        String result = getMessageOrNull(locale, args);
+        return result == null
+                ? unresolvedMessageHandler.onUnresolvedMessageWithNamedArguments(I18nKey.of(locale, path), args)
+                : result;
+    }
+
+    @Nullable
+    @Override
+    public String getMessageOrNull(@NotNull Locale locale, Object... args) {
+        expectNonNull(locale, "locale");
+        expectNonNull(args, "args");
+        LocalizedMessageTemplate template = getTemplate(locale);
+        return template != null
+                ? template.resolve(locale, args)
+                : null;
+    }
+
+    @Nullable
+    @Override
+    public String getMessageOrNull(@NotNull Locale locale, @NotNull Map<String, Object> args) {
+        expectNonNull(locale, "locale");
+        expectNonNull(args, "args");
+        LocalizedMessageTemplate template = getTemplate(locale);
+        return template != null
+                ? template.resolve(locale, args)
+                : null;
+    }
+
+    private LocalizedMessageTemplate getTemplate(Locale locale) {
+        int ordinal = localeResolver.getLocaleOrdinal(locale);
+        return ordinal >= 0 ? templates[ordinal] : null;
+    }
+
+    @Override
+    public String toString() {
+        return "I18nMessageHandle{" + path + '}';
+    }
+}
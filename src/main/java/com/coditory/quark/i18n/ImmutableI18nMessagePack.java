@@ -3,42 +3,70 @@ package com.coditory.quark.i18n;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableMap;
 
 final class ImmutableI18nMessagePack implements I18nMessagePack {
-    private final Map<I18nKey, MessageTemplate> templates;
+    private static final int PARALLEL_CHUNK_SIZE = 1024;
+    private final MessageTemplateIndex index;
     private final MessageTemplateParser parser;
     private final I18nMissingMessageHandler unresolvedMessageHandler;
-    private final I18nPath queryPrefix;
-    private final I18nKeyGenerator keyGenerator;
+    private final LocaleResolver localeResolver;
+    private final LruCache<I18nPath, ImmutableI18nMessagePack> prefixedPacks;
+    private final MessageTemplateCache templateCache;
+    private final LruCache<BundleExportKey, I18nBundleExport> bundleExports = new LruCache<>(64);
+    private final ConcurrentHashMap<Locale, I18nWarmUpReport> warmUpReports = new ConcurrentHashMap<>();
 
     ImmutableI18nMessagePack(
-            Map<I18nKey, MessageTemplate> templates,
+            Map<I18nKey, LocalizedMessageTemplate> templates,
             MessageTemplateParser parser,
             I18nMissingMessageHandler unresolvedMessageHandler,
-            I18nKeyGenerator keyGenerator
+            I18nKeyGenerator keyGenerator,
+            LocaleResolver localeResolver,
+            MessageTemplateCache templateCache
     ) {
-        this(templates, parser, unresolvedMessageHandler, keyGenerator, null);
+        this(
+                MessageTemplateIndex.build(templates, keyGenerator, localeResolver),
+                parser,
+                unresolvedMessageHandler,
+                localeResolver,
+                new LruCache<>(64),
+                templateCache
+        );
     }
 
     private ImmutableI18nMessagePack(
-            Map<I18nKey, MessageTemplate> templates,
+            MessageTemplateIndex index,
             MessageTemplateParser parser,
             I18nMissingMessageHandler unresolvedMessageHandler,
-            I18nKeyGenerator keyGenerator,
-            I18nPath queryPrefix
+            LocaleResolver localeResolver,
+            LruCache<I18nPath, ImmutableI18nMessagePack> prefixedPacks,
+            MessageTemplateCache templateCache
     ) {
-        expectNonNull(templates, "templates");
-        this.templates = Map.copyOf(templates);
+        this.index = expectNonNull(index, "index");
         this.parser = expectNonNull(parser, "parser");
         this.unresolvedMessageHandler = expectNonNull(unresolvedMessageHandler, "unresolvedMessageHandler");
-        this.keyGenerator = expectNonNull(keyGenerator, "keyGenerator");
-        this.queryPrefix = queryPrefix;
+        this.localeResolver = expectNonNull(localeResolver, "localeResolver");
+        this.prefixedPacks = expectNonNull(prefixedPacks, "prefixedPacks");
+        this.templateCache = expectNonNull(templateCache, "templateCache");
     }
 
     @NotNull
@@ -75,9 +103,10 @@ final class ImmutableI18nMessagePack implements I18nMessagePack {
     public String getMessageOrNull(@NotNull I18nKey key, Object... args) {
         expectNonNull(key, "key");
         expectNonNull(args, "args");
-        return getTemplate(key)
-                .map(message -> message.resolve(key.locale(), args))
-                .orElse(null);
+        LocalizedMessageTemplate template = index.get(key);
+        return template != null
+                ? template.resolve(key.locale(), args)
+                : null;
     }
 
     @Override
@@ -85,16 +114,201 @@ final class ImmutableI18nMessagePack implements I18nMessagePack {
     public String getMessageOrNull(@NotNull I18nKey key, @NotNull Map<String, Object> args) {
         expectNonNull(key, "key");
         expectNonNull(args, "args");
-        return getTemplate(key)
-                .map(message -> message.resolve(key.locale(), args))
-                .orElse(null);
+        LocalizedMessageTemplate template = index.get(key);
+        return template != null
+                ? template.resolve(key.locale(), args)
+                : null;
+    }
+
+    @NotNull
+    @Override
+    public Map<I18nPath, String> resolveAll(@NotNull Locale locale, @NotNull Collection<I18nPath> paths, Object... args) {
+        expectNonNull(locale, "locale");
+        expectNonNull(paths, "paths");
+        expectNonNull(args, "args");
+        int ordinal = index.getLocaleOrdinal(locale);
+        Map<I18nPath, String> result = new LinkedHashMap<>(paths.size() * 4 / 3 + 1);
+        for (I18nPath path : paths) {
+            expectNonNull(path, "path");
+            LocalizedMessageTemplate template = index.get(path, ordinal);
+            String message = template != null
+                    ? template.resolve(locale, args)
+                    : unresolvedMessageHandler.onUnresolvedMessage(I18nKey.of(locale, path), args);
+            result.put(path, message);
+        }
+        return unmodifiableMap(result);
+    }
+
+    @NotNull
+    @Override
+    public List<String> formatAll(@NotNull I18nKey key, @NotNull List<Object[]> rows) {
+        expectNonNull(key, "key");
+        expectNonNull(rows, "rows");
+        LocalizedMessageTemplate template = index.get(key);
+        String[] result = new String[rows.size()];
+        formatRows(key, template, rows, result, 0);
+        return unmodifiableList(Arrays.asList(result));
+    }
+
+    @NotNull
+    @Override
+    public List<String> formatAllParallel(@NotNull I18nKey key, @NotNull List<Object[]> rows) {
+        expectNonNull(key, "key");
+        expectNonNull(rows, "rows");
+        LocalizedMessageTemplate template = index.get(key);
+        String[] result = new String[rows.size()];
+        int chunks = (rows.size() + PARALLEL_CHUNK_SIZE - 1) / PARALLEL_CHUNK_SIZE;
+        IntStream.range(0, chunks).parallel().forEach(chunk -> {
+            int from = chunk * PARALLEL_CHUNK_SIZE;
+            int to = Math.min(from + PARALLEL_CHUNK_SIZE, rows.size());
+            formatRows(key, template, rows.subList(from, to), result, from);
+        });
+        return unmodifiableList(Arrays.asList(result));
+    }
+
+    private void formatRows(I18nKey key, LocalizedMessageTemplate template, List<Object[]> rows, String[] result, int offset) {
+        if (template != null) {
+            template.resolveAll(key.locale(), rows, result, offset);
+            return;
+        }
+        int i = offset;
+        for (Object[] args : rows) {
+            result[i++] = unresolvedMessageHandler.onUnresolvedMessage(key, args);
+        }
+    }
+
+    @NotNull
+    @Override
+    public Stream<String> formatAll(@NotNull I18nKey key, @NotNull Stream<Object[]> rows) {
+        expectNonNull(key, "key");
+        expectNonNull(rows, "rows");
+        LocalizedMessageTemplate template = index.get(key);
+        return template != null
+                ? rows.map(args -> template.resolve(key.locale(), args))
+                : rows.map(args -> unresolvedMessageHandler.onUnresolvedMessage(key, args));
+    }
+
+    @Override
+    public void formatTo(@NotNull Appendable out, @NotNull I18nKey key, Object... args) {
+        expectNonNull(out, "out");
+        expectNonNull(key, "key");
+        expectNonNull(args, "args");
+        LocalizedMessageTemplate template = index.get(key);
+        if (template != null) {
+            template.resolveTo(out, key.locale(), args);
+        } else {
+            append(out, unresolvedMessageHandler.onUnresolvedMessage(key, args));
+        }
+    }
+
+    @Override
+    public void formatTo(@NotNull Appendable out, @NotNull I18nKey key, @NotNull Map<String, Object> args) {
+        expectNonNull(out, "out");
+        expectNonNull(key, "key");
+        expectNonNull(args, "args");
+        LocalizedMessageTemplate template = index.get(key);
+        if (template != null) {
+            template.resolveTo(out, key.locale(), args);
+        } else {
+            append(out, unresolvedMessageHandler.onUnresolvedMessageWithNamedArguments(key, args));
+        }
+    }
+
+    @Override
+    public void writeUtf8(@NotNull OutputStream out, @NotNull I18nKey key, Object... args) {
+        expectNonNull(out, "out");
+        byte[] bytes = getUtf8Message(key, args);
+        try {
+            out.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void writeUtf8(@NotNull ByteBuffer out, @NotNull I18nKey key, Object... args) {
+        expectNonNull(out, "out");
+        out.put(getUtf8Message(key, args));
+    }
+
+    private byte[] getUtf8Message(I18nKey key, Object[] args) {
+        expectNonNull(key, "key");
+        expectNonNull(args, "args");
+        LocalizedMessageTemplate template = index.get(key);
+        return template != null
+                ? template.resolveUtf8(key.locale(), args)
+                : unresolvedMessageHandler.onUnresolvedMessage(key, args).getBytes(UTF_8);
+    }
+
+    private static void append(Appendable out, String value) {
+        try {
+            out.append(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Warms up templates one by one, so an invalid lazy template does not stop the warm-up.
+     */
+    I18nWarmUpReport warmUp(Locale locale) {
+        expectNonNull(locale, "locale");
+        long start = System.nanoTime();
+        int count = 0;
+        List<RuntimeException> errors = new ArrayList<>();
+        for (LocalizedMessageTemplate template : index.getTemplates(locale)) {
+            try {
+                if (template.template().warmUp(locale)) {
+                    count++;
+                }
+            } catch (RuntimeException e) {
+                errors.add(e);
+            }
+        }
+        I18nWarmUpReport report = new I18nWarmUpReport(locale, Duration.ofNanos(System.nanoTime() - start), count, errors);
+        warmUpReports.put(locale, report);
+        return report;
+    }
+
+    @NotNull
+    @Override
+    public Map<Locale, I18nWarmUpReport> getWarmUpReports() {
+        return Map.copyOf(warmUpReports);
+    }
+
+    /**
+     * Compiles lazy templates and returns compilation errors.
+     */
+    List<IllegalArgumentException> compileTemplates() {
+        List<IllegalArgumentException> errors = new ArrayList<>();
+        for (LocalizedMessageTemplate template : getDefinedTemplates()) {
+            try {
+                template.template();
+            } catch (IllegalArgumentException e) {
+                errors.add(e);
+            }
+        }
+        return errors;
+    }
+
+    List<LocalizedMessageTemplate> getDefinedTemplates() {
+        return index.getDefinedTemplates();
+    }
+
+    MessageTemplateParser getParser() {
+        return parser;
     }
 
-    private Optional<MessageTemplateWithKey> getTemplate(I18nKey key) {
-        return keyGenerator.keys(key, queryPrefix).stream()
-                .filter(templates::containsKey)
-                .map(matched -> new MessageTemplateWithKey(matched, templates.get(matched)))
-                .findFirst();
+    List<Locale> getAvailableLocales() {
+        return localeResolver.getAvailableLocalesByOrdinal();
+    }
+
+    @NotNull
+    @Override
+    public I18nMessageHandle handle(@NotNull I18nPath path) {
+        expectNonNull(path, "path");
+        LocalizedMessageTemplate[] templates = index.getByLocaleOrdinal(path);
+        return new ImmutableI18nMessageHandle(path, templates, localeResolver, unresolvedMessageHandler);
     }
 
     @NotNull
@@ -104,7 +318,7 @@ final class ImmutableI18nMessagePack implements I18nMessagePack {
         expectNonNull(template, "template");
         expectNonNull(args, "args");
         try {
-            return parser.parseTemplate(locale, template)
+            return parseTemplate(locale, template)
                     .resolve(locale, args);
         } catch (Throwable e) {
             throw new IllegalArgumentException("Could not format message " + template
@@ -119,7 +333,7 @@ final class ImmutableI18nMessagePack implements I18nMessagePack {
         expectNonNull(template, "template");
         expectNonNull(args, "args");
         try {
-            return parser.parseTemplate(locale, template)
+            return parseTemplate(locale, template)
                     .resolve(locale, args);
         } catch (Throwable e) {
             throw new IllegalArgumentException("Could not format message "
@@ -128,32 +342,33 @@ final class ImmutableI18nMessagePack implements I18nMessagePack {
         }
     }
 
-    @Override
+    private MessageTemplate parseTemplate(Locale locale, String template) {
+        return templateCache.get(locale, template, () -> parser.parseTemplate(locale, template));
+    }
+
     @NotNull
-    public I18nMessagePack prefixQueries(@NotNull I18nPath prefix) {
+    @Override
+    public I18nBundleExport exportBundle(@NotNull Locale locale, @NotNull I18nPath prefix) {
+        expectNonNull(locale, "locale");
         expectNonNull(prefix, "prefix");
-        return new ImmutableI18nMessagePack(templates, parser, unresolvedMessageHandler, keyGenerator, prefix);
+        return bundleExports.computeIfAbsent(new BundleExportKey(locale, prefix), key ->
+                I18nBundleExport.of(locale, prefix, index.getTemplateValues(locale, prefix)));
     }
 
-    private record MessageTemplateWithKey(I18nKey key, MessageTemplate template) {
-        String resolve(Locale locale, @NotNull Map<String, Object> args) {
-            try {
-                return template.resolve(locale, args);
-            } catch (Throwable e) {
-                throw new IllegalArgumentException("Could not resolve message "
-                        + key.toShortString() + "=\"" + template.getValue()
-                        + "\" with named arguments " + args + " and locale: " + locale, e);
-            }
-        }
+    private record BundleExportKey(Locale locale, I18nPath prefix) {
+    }
 
-        String resolve(Locale locale, @NotNull Object[] args) {
-            try {
-                return template.resolve(locale, args);
-            } catch (Throwable e) {
-                throw new IllegalArgumentException("Could not resolve message "
-                        + key.toShortString() + "=\"" + template.getValue()
-                        + "\" with indexed arguments " + Arrays.toString(args) + " and locale: " + locale, e);
-            }
-        }
+    @NotNull
+    @Override
+    public I18nTemplateCacheStats getTemplateCacheStats() {
+        return templateCache.getStats();
+    }
+
+    @Override
+    @NotNull
+    public I18nMessagePack prefixQueries(@NotNull I18nPath prefix) {
+        expectNonNull(prefix, "prefix");
+        return prefixedPacks.computeIfAbsent(prefix, p -> new ImmutableI18nMessagePack(
+                index.withQueryPrefix(p), parser, unresolvedMessageHandler, localeResolver, prefixedPacks, templateCache));
     }
 }
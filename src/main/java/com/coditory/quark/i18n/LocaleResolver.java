@@ -1,15 +1,19 @@
 package com.coditory.quark.i18n;
 
 import com.coditory.quark.i18n.loader.I18nMessageBundle;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
 import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+import static java.util.Comparator.comparing;
 import static java.util.stream.Collectors.toSet;
 
 final class LocaleResolver {
@@ -24,14 +28,30 @@ final class LocaleResolver {
 
     private final LruCache<Locale, Locale> cache;
     private final LruCache<Locale, List<Locale>> hierarchyCache;
+    private final LruCache<Locale, Integer> ordinalCache;
     private final Locale defaultLocale;
     private final Set<Locale> availableLocales;
+    private final List<Locale> localesByOrdinal;
+    private final Map<Locale, Integer> ordinals;
 
     private LocaleResolver(Locale defaultLocale, Set<Locale> availableLocales) {
         this.defaultLocale = defaultLocale;
         this.availableLocales = Set.copyOf(availableLocales);
+        this.localesByOrdinal = availableLocales.stream()
+                .sorted(comparing(Locale::toLanguageTag))
+                .toList();
+        this.ordinals = assignOrdinals(localesByOrdinal);
         this.cache = new LruCache<>(availableLocales.size() * 10 + 1);
         this.hierarchyCache = new LruCache<>(availableLocales.size() * 10 + 1);
+        this.ordinalCache = new LruCache<>(availableLocales.size() * 10 + 1);
+    }
+
+    private static Map<Locale, Integer> assignOrdinals(List<Locale> locales) {
+        Map<Locale, Integer> result = new HashMap<>();
+        for (int i = 0; i < locales.size(); ++i) {
+            result.put(locales.get(i), i);
+        }
+        return Map.copyOf(result);
     }
 
     I18nKey resolveQueryLocale(I18nKey key) {
@@ -52,6 +72,50 @@ final class LocaleResolver {
         return hierarchyCache.computeIfAbsent(locale, this::resolveHierarchyOnCacheMiss);
     }
 
+    @Nullable
+    Locale getFirstAvailableLocale(Locale locale) {
+        expectNonNull(locale, "locale");
+        for (Locale candidate : getLocaleHierarchy(locale)) {
+            if (availableLocales.contains(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a dense ordinal of a locale that should be used to query messages.
+     * It is the first available locale from the locale hierarchy or from the default locale hierarchy.
+     * Returns -1 if there is no such locale.
+     */
+    int getLocaleOrdinal(Locale locale) {
+        expectNonNull(locale, "locale");
+        Integer ordinal = ordinals.get(locale);
+        return ordinal != null
+                ? ordinal
+                : ordinalCache.computeIfAbsent(locale, this::resolveOrdinalOnCacheMiss);
+    }
+
+    int getAvailableLocaleOrdinal(Locale locale) {
+        expectNonNull(locale, "locale");
+        Integer ordinal = ordinals.get(locale);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    List<Locale> getAvailableLocalesByOrdinal() {
+        return localesByOrdinal;
+    }
+
+    private Integer resolveOrdinalOnCacheMiss(Locale locale) {
+        Locale available = getFirstAvailableLocale(locale);
+        if (available == null && defaultLocale != null) {
+            available = getFirstAvailableLocale(defaultLocale);
+        }
+        return available != null
+                ? ordinals.get(available)
+                : -1;
+    }
+
     private Locale resolveOnCacheMiss(Locale locale) {
         return getLocaleHierarchy(locale).stream()
                 .filter(this::isValid)
@@ -0,0 +1,175 @@
+package com.coditory.quark.i18n;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+
+/**
+ * Message template with its key. Lazy templates keep the value with resolved references
+ * and are compiled on first use. Concurrent compilations publish a single template instance.
+ * A failed compilation is remembered, so an invalid template is not parsed again on every use.
+ */
+final class LocalizedMessageTemplate {
+    private static final AtomicReferenceFieldUpdater<LocalizedMessageTemplate, MessageTemplate> TEMPLATE =
+            AtomicReferenceFieldUpdater.newUpdater(LocalizedMessageTemplate.class, MessageTemplate.class, "template");
+
+    static LocalizedMessageTemplate compiled(I18nKey key, MessageTemplate template) {
+        expectNonNull(key, "key");
+        expectNonNull(template, "template");
+        return new LocalizedMessageTemplate(key.locale(), key.path(), null, null, template);
+    }
+
+    /**
+     * Expects a normalized value with resolved references.
+     */
+    static LocalizedMessageTemplate lazy(I18nKey key, String value, MessageTemplateParser parser) {
+        expectNonNull(key, "key");
+        expectNonNull(value, "value");
+        expectNonNull(parser, "parser");
+        return new LocalizedMessageTemplate(key.locale(), key.path(), value, parser, null);
+    }
+
+    private final Locale locale;
+    private final I18nPath path;
+    private final String value;
+    private final MessageTemplateParser parser;
+    private volatile MessageTemplate template;
+    private volatile RuntimeException compilationError;
+
+    private LocalizedMessageTemplate(Locale locale, I18nPath path, String value, MessageTemplateParser parser, MessageTemplate template) {
+        this.locale = locale;
+        this.path = path;
+        this.value = value;
+        this.parser = parser;
+        this.template = template;
+    }
+
+    Locale locale() {
+        return locale;
+    }
+
+    I18nPath path() {
+        return path;
+    }
+
+    I18nKey key() {
+        return I18nKey.of(locale, path);
+    }
+
+    boolean isCompiled() {
+        return template != null;
+    }
+
+    /**
+     * Returns the template value without compiling it.
+     */
+    String value() {
+        return value != null ? value : template.getValue();
+    }
+
+    MessageTemplate template() {
+        MessageTemplate template = this.template;
+        return template != null ? template : compile();
+    }
+
+    private MessageTemplate compile() {
+        RuntimeException error = compilationError;
+        if (error != null) {
+            throw compilationError(error);
+        }
+        MessageTemplate compiled;
+        try {
+            compiled = parser.parseResolvedTemplate(value);
+        } catch (RuntimeException e) {
+            compilationError = e;
+            throw compilationError(e);
+        }
+        return TEMPLATE.compareAndSet(this, null, compiled)
+                ? compiled
+                : template;
+    }
+
+    private IllegalArgumentException compilationError(RuntimeException cause) {
+        return new IllegalArgumentException("Could not compile message "
+                + key().toShortString() + "=\"" + value + "\"", cause);
+    }
+
+    String resolve(Locale locale, @NotNull Map<String, Object> args) {
+        MessageTemplate template = template();
+        try {
+            return template.resolve(locale, args);
+        } catch (Throwable e) {
+            throw resolutionError(locale, "named arguments " + args, e);
+        }
+    }
+
+    String resolve(Locale locale, @NotNull Object[] args) {
+        MessageTemplate template = template();
+        try {
+            return template.resolve(locale, args);
+        } catch (Throwable e) {
+            throw resolutionError(locale, "indexed arguments " + Arrays.toString(args), e);
+        }
+    }
+
+    byte[] resolveUtf8(Locale locale, @NotNull Object[] args) {
+        MessageTemplate template = template();
+        try {
+            return template.resolveUtf8(locale, args);
+        } catch (Throwable e) {
+            throw resolutionError(locale, "indexed arguments " + Arrays.toString(args), e);
+        }
+    }
+
+    void resolveTo(Appendable out, Locale locale, @NotNull Map<String, Object> args) {
+        MessageTemplate template = template();
+        try {
+            template.resolveTo(out, locale, args);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (Throwable e) {
+            throw resolutionError(locale, "named arguments " + args, e);
+        }
+    }
+
+    void resolveTo(Appendable out, Locale locale, @NotNull Object[] args) {
+        MessageTemplate template = template();
+        try {
+            template.resolveTo(out, locale, args);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (Throwable e) {
+            throw resolutionError(locale, "indexed arguments " + Arrays.toString(args), e);
+        }
+    }
+
+    /**
+     * Resolves rows and stores results in the array starting from the offset.
+     */
+    void resolveAll(Locale locale, List<Object[]> rows, String[] result, int offset) {
+        int i = offset;
+        try (MessageTemplate.BatchResolver resolver = template().batchResolver(locale)) {
+            for (Object[] args : rows) {
+                try {
+                    result[i++] = resolver.resolve(args);
+                } catch (Throwable e) {
+                    throw resolutionError(locale, "indexed arguments " + Arrays.toString(args), e);
+                }
+            }
+        }
+    }
+
+    private IllegalArgumentException resolutionError(Locale locale, String args, Throwable cause) {
+        return new IllegalArgumentException("Could not resolve message "
+                + key().toShortString() + "=\"" + template().getValue()
+                + "\" with " + args + " and locale: " + locale, cause);
+    }
+}
@@ -24,6 +24,8 @@ final class LruCache<K, V> {
         if (value == null) {
             return;
         }
+        // replaced value becomes the most recently written one
+        remove(key);
         if (map.size() == capacity) {
             remove(first.key);
         }
@@ -90,9 +92,14 @@ final class LruCache<K, V> {
         return value;
     }
 
+    int size() {
+        return map.size();
+    }
+
     private synchronized void upvote(K key) {
         Node node = map.get(key);
-        if (node == last) {
+        // node could be removed by a concurrent put
+        if (node == null || node == last) {
             return;
         }
         if (node.next != null) {
@@ -104,8 +111,10 @@ final class LruCache<K, V> {
         if (node == first) {
             first = node.prev;
         }
-        last.next = node;
-        node.prev = last;
+        // prev points to a newer node, next to an older one
+        last.prev = node;
+        node.next = last;
+        node.prev = null;
         last = node;
     }
 
@@ -0,0 +1,47 @@
+package com.coditory.quark.i18n;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+
+/**
+ * Compiles lazy templates in the background, so syntax errors are reported
+ * without waiting for the first use of an invalid message.
+ */
+final class MessagePackValidation {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final Executor executor;
+
+    MessagePackValidation(Executor executor) {
+        this.executor = expectNonNull(executor, "executor");
+    }
+
+    void validate(ImmutableI18nMessagePack messagePack) {
+        expectNonNull(messagePack, "messagePack");
+        CompletableFuture.runAsync(() -> validateNow(messagePack), executor)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        logger.warn("Could not validate messages", error);
+                    }
+                });
+    }
+
+    private void validateNow(ImmutableI18nMessagePack messagePack) {
+        long start = System.nanoTime();
+        List<IllegalArgumentException> errors = messagePack.compileTemplates();
+        for (IllegalArgumentException error : errors) {
+            logger.error("Invalid message template", error);
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        if (errors.isEmpty()) {
+            logger.info("Validated messages in {}ms", millis);
+        } else {
+            logger.warn("Validated messages in {}ms. Found {} invalid templates", millis, errors.size());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.coditory.quark.i18n;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+
+/**
+ * Creates locale specific ICU formats upfront, so first renders after build or reload
+ * do not pay for format cloning and locale data loading.
+ */
+final class MessagePackWarmUp {
+    private final Logger logger = LoggerFactory.getLogger(this.getClass());
+    private final List<Locale> locales;
+    private final Executor executor;
+
+    MessagePackWarmUp(List<Locale> locales, Executor executor) {
+        this.locales = expectNonNull(locales, "locales");
+        this.executor = executor;
+    }
+
+    void warmUp(ImmutableI18nMessagePack messagePack) {
+        expectNonNull(messagePack, "messagePack");
+        List<Locale> locales = this.locales.isEmpty()
+                ? messagePack.getAvailableLocales()
+                : this.locales;
+        if (executor == null) {
+            long start = System.nanoTime();
+            locales.forEach(locale -> warmUp(messagePack, locale));
+            logger.info("Warmed up messages for {} locales in {}ms", locales.size(), millisSince(start));
+            return;
+        }
+        long start = System.nanoTime();
+        CompletableFuture<?>[] futures = locales.stream()
+                .map(locale -> CompletableFuture.runAsync(() -> warmUp(messagePack, locale), executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).whenComplete((result, error) -> {
+            if (error != null) {
+                logger.warn("Could not warm up messages", error);
+            } else {
+                logger.info("Warmed up messages for {} locales in {}ms", locales.size(), millisSince(start));
+            }
+        });
+    }
+
+    private void warmUp(ImmutableI18nMessagePack messagePack, Locale locale) {
+        I18nWarmUpReport report = messagePack.warmUp(locale);
+        for (RuntimeException error : report.errors()) {
+            logger.error("Could not warm up message template", error);
+        }
+        logger.info("Warmed up {} message formats for locale {} in {}ms",
+                report.templates(), locale.toLanguageTag(), report.duration().toMillis());
+    }
+
+    private long millisSince(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -1,69 +1,254 @@
 package com.coditory.quark.i18n;
 
+import com.coditory.quark.i18n.ArgumentIndexExtractor.ArgumentTypes;
 import com.ibm.icu.text.MessageFormat;
+import com.ibm.icu.text.MessagePattern;
 
+import java.io.IOException;
+import java.text.FieldPosition;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 import static com.coditory.quark.i18n.ArgumentIndexExtractor.extractArgumentIndexes;
+import static com.coditory.quark.i18n.ArgumentIndexExtractor.extractArgumentNames;
+import static com.coditory.quark.i18n.ArgumentIndexExtractor.extractArgumentTypes;
+import static com.coditory.quark.i18n.I18nMessages.EMPTY_ARGS;
 import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 final class MessageTemplate {
-    static MessageTemplate parse(String template, ArgumentResolver argumentResolver) {
+    static MessageTemplate parse(String template, ArgumentResolver argumentResolver, SharedFormats sharedFormats) {
         expectNonNull(template, "template");
         expectNonNull(argumentResolver, "argumentResolver");
+        expectNonNull(sharedFormats, "sharedFormats");
+        // template is parsed by ICU once, ICU MessageFormat is created only when it is needed for rendering
+        MessagePattern pattern;
+        NativeMessageFormat nativeFormat;
+        MessageFormat messageFormat = null;
         try {
-            MessageFormat messageFormat = new MessageFormat(template);
-            return new MessageTemplate(template, messageFormat, argumentResolver);
+            pattern = new MessagePattern(template);
+            nativeFormat = NativeMessageFormat.compile(pattern, sharedFormats);
+            if (nativeFormat == null) {
+                messageFormat = new MessageFormat(template);
+            }
         } catch (Exception e) {
             throw new IllegalArgumentException("Could not parse message template: " + template, e);
         }
+        if (!pattern.hasNamedArguments() && !pattern.hasNumberedArguments()) {
+            // static template is rendered once, templates without arguments are always compiled natively
+            String value = nativeFormat.format(Locale.ROOT, EMPTY_ARGS);
+            return new MessageTemplate(template, null, null, value, Set.of(), NO_INDEXES, ArgumentTypes.EMPTY, argumentResolver, sharedFormats);
+        }
+        // argument types are needed only to convert arguments for ICU
+        ArgumentTypes argumentTypes = messageFormat != null ? extractArgumentTypes(pattern) : ArgumentTypes.EMPTY;
+        return pattern.hasNamedArguments()
+                ? new MessageTemplate(template, messageFormat, nativeFormat, null, extractArgumentNames(pattern), NO_INDEXES, argumentTypes, argumentResolver, sharedFormats)
+                : new MessageTemplate(template, messageFormat, nativeFormat, null, Set.of(), extractArgumentIndexes(pattern), argumentTypes, argumentResolver, sharedFormats);
     }
 
-    private final ConcurrentHashMap<Locale, MessageFormat> formats = new ConcurrentHashMap<>();
+    // pooled per template and locale, so only a few idle instances are kept for each of them
+    private static final int IDLE_FORMATS_PER_LOCALE = 2;
+    private static final BitSet NO_INDEXES = new BitSet(0);
+    private static final LocaleFormat[] NO_FORMATS = new LocaleFormat[0];
+    private static final AtomicReferenceFieldUpdater<MessageTemplate, LocaleFormat[]> FORMATS =
+            AtomicReferenceFieldUpdater.newUpdater(MessageTemplate.class, LocaleFormat[].class, "formats");
+
+    // copy-on-write, only a few locales are used per template
+    private volatile LocaleFormat[] formats = NO_FORMATS;
     private final ArgumentResolver argumentResolver;
     private final String template;
     private final MessageFormat messageFormat;
-    private final boolean dynamic;
+    private final NativeMessageFormat nativeFormat;
+    private final String staticValue;
+    private final byte[] staticUtf8Value;
     private final Set<String> usedArgumentNames;
-    private final Set<Integer> usedArgumentIndexes;
+    private final BitSet usedArgumentIndexes;
+    private final ArgumentTypes argumentTypes;
+    private final SharedFormats sharedFormats;
 
-    private MessageTemplate(String template, MessageFormat messageFormat, ArgumentResolver argumentResolver) {
+    private MessageTemplate(
+            String template,
+            MessageFormat messageFormat,
+            NativeMessageFormat nativeFormat,
+            String staticValue,
+            Set<String> usedArgumentNames,
+            BitSet usedArgumentIndexes,
+            ArgumentTypes argumentTypes,
+            ArgumentResolver argumentResolver,
+            SharedFormats sharedFormats
+    ) {
         this.template = expectNonNull(template, "template");
-        this.messageFormat = expectNonNull(messageFormat, "messageFormat");
         this.argumentResolver = expectNonNull(argumentResolver, "argumentResolver");
-        this.usedArgumentNames = messageFormat.usesNamedArguments()
-                ? Set.copyOf(messageFormat.getArgumentNames())
-                : Set.of();
-        this.usedArgumentIndexes = messageFormat.usesNamedArguments()
-                ? Set.of()
-                : extractArgumentIndexes(template);
-        this.dynamic = !usedArgumentNames.isEmpty() || !usedArgumentIndexes.isEmpty();
+        this.messageFormat = messageFormat;
+        this.nativeFormat = nativeFormat;
+        this.staticValue = staticValue;
+        this.staticUtf8Value = staticValue == null ? null : staticValue.getBytes(UTF_8);
+        this.usedArgumentNames = expectNonNull(usedArgumentNames, "usedArgumentNames");
+        this.usedArgumentIndexes = expectNonNull(usedArgumentIndexes, "usedArgumentIndexes");
+        this.argumentTypes = expectNonNull(argumentTypes, "argumentTypes");
+        this.sharedFormats = expectNonNull(sharedFormats, "sharedFormats");
     }
 
     public String resolve(Locale locale, Object[] args) {
         expectNonNull(locale, "locale");
         expectNonNull(args, "args");
-        MessageFormat messageFormat = getMessageFormat(locale);
-        Object[] resolvedArgs = argumentResolver.resolveArguments(args, usedArgumentIndexes);
-        return messageFormat.format(resolvedArgs);
+        if (staticValue != null) {
+            return staticValue;
+        }
+        if (nativeFormat != null) {
+            return nativeFormat.format(locale, argumentResolver.resolveArguments(args, usedArgumentIndexes));
+        }
+        return formatWithIcu(locale, resolveIcuArguments(locale, args));
     }
 
     public String resolve(Locale locale, Map<String, Object> args) {
         expectNonNull(locale, "locale");
         expectNonNull(args, "args");
-        MessageFormat messageFormat = getMessageFormat(locale);
-        Map<String, Object> resolvedArgs = argumentResolver.resolveArguments(args, usedArgumentNames);
-        return messageFormat.format(resolvedArgs);
+        if (staticValue != null) {
+            return staticValue;
+        }
+        if (nativeFormat != null) {
+            return nativeFormat.format(locale, argumentResolver.resolveArguments(args, usedArgumentNames));
+        }
+        return formatWithIcu(locale, resolveIcuArguments(locale, args));
     }
 
-    private MessageFormat getMessageFormat(Locale locale) {
-        return dynamic
-                ? formats.computeIfAbsent(locale, this::createMessageFormat)
-                : messageFormat;
+    public void resolveTo(Appendable out, Locale locale, Object[] args) throws IOException {
+        expectNonNull(out, "out");
+        expectNonNull(locale, "locale");
+        expectNonNull(args, "args");
+        if (staticValue != null) {
+            out.append(staticValue);
+            return;
+        }
+        if (nativeFormat != null) {
+            nativeFormat.formatTo(out, locale, argumentResolver.resolveArguments(args, usedArgumentIndexes));
+            return;
+        }
+        Object[] resolvedArgs = resolveIcuArguments(locale, args);
+        if (out instanceof StringBuffer buffer) {
+            formatWithIcu(locale, resolvedArgs, buffer);
+        } else {
+            out.append(formatWithIcu(locale, resolvedArgs));
+        }
+    }
+
+    public void resolveTo(Appendable out, Locale locale, Map<String, Object> args) throws IOException {
+        expectNonNull(out, "out");
+        expectNonNull(locale, "locale");
+        expectNonNull(args, "args");
+        if (staticValue != null) {
+            out.append(staticValue);
+            return;
+        }
+        if (nativeFormat != null) {
+            nativeFormat.formatTo(out, locale, argumentResolver.resolveArguments(args, usedArgumentNames));
+            return;
+        }
+        Map<String, Object> resolvedArgs = resolveIcuArguments(locale, args);
+        if (out instanceof StringBuffer buffer) {
+            formatWithIcu(locale, resolvedArgs, buffer);
+        } else {
+            out.append(formatWithIcu(locale, resolvedArgs));
+        }
+    }
+
+    public byte[] resolveUtf8(Locale locale, Object[] args) {
+        // shared array for static templates, callers must not modify it
+        return staticUtf8Value != null
+                ? staticUtf8Value
+                : resolve(locale, args).getBytes(UTF_8);
+    }
+
+    /**
+     * Creates a resolver for rendering many rows in a single thread.
+     * ICU format is checked out once per batch and returned on close.
+     */
+    BatchResolver batchResolver(Locale locale) {
+        expectNonNull(locale, "locale");
+        return new BatchResolver(locale);
+    }
+
+    boolean warmUp(Locale locale) {
+        expectNonNull(locale, "locale");
+        if (nativeFormat != null) {
+            nativeFormat.warmUp(locale);
+            return true;
+        }
+        if (messageFormat == null) {
+            return false;
+        }
+        ObjectPool<MessageFormat> pool = getMessageFormatPool(locale);
+        pool.release(pool.acquire());
+        return true;
+    }
+
+    /**
+     * Returns true if locale specific formats of this template are created and pooled.
+     */
+    boolean isWarmedUp(Locale locale) {
+        expectNonNull(locale, "locale");
+        if (nativeFormat != null) {
+            return nativeFormat.isWarmedUp(locale);
+        }
+        if (messageFormat == null) {
+            return false;
+        }
+        for (LocaleFormat format : formats) {
+            if (format.locale.equals(locale)) {
+                return format.pool.idleCount() > 0;
+            }
+        }
+        return false;
+    }
+
+    private Object[] resolveIcuArguments(Locale locale, Object[] args) {
+        Object[] resolved = argumentResolver.resolveIcuArguments(args, usedArgumentIndexes);
+        return sharedFormats.toIcuArguments(locale, resolved, argumentTypes);
+    }
+
+    private Map<String, Object> resolveIcuArguments(Locale locale, Map<String, Object> args) {
+        Map<String, Object> resolved = argumentResolver.resolveIcuArguments(args, usedArgumentNames);
+        return sharedFormats.toIcuArguments(locale, resolved, argumentTypes);
+    }
+
+    private String formatWithIcu(Locale locale, Object args) {
+        StringBuffer result = new StringBuffer();
+        formatWithIcu(locale, args, result);
+        return result.toString();
+    }
+
+    private void formatWithIcu(Locale locale, Object args, StringBuffer out) {
+        // ICU MessageFormat is not documented as thread-safe, so each thread gets its own instance
+        ObjectPool<MessageFormat> pool = getMessageFormatPool(locale);
+        MessageFormat messageFormat = pool.acquire();
+        try {
+            messageFormat.format(args, out, new FieldPosition(0));
+        } finally {
+            pool.release(messageFormat);
+        }
+    }
+
+    private ObjectPool<MessageFormat> getMessageFormatPool(Locale locale) {
+        while (true) {
+            LocaleFormat[] current = formats;
+            for (LocaleFormat format : current) {
+                if (format.locale.equals(locale)) {
+                    return format.pool;
+                }
+            }
+            LocaleFormat created = new LocaleFormat(locale, new ObjectPool<>(() -> createMessageFormat(locale), IDLE_FORMATS_PER_LOCALE));
+            LocaleFormat[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = created;
+            if (FORMATS.compareAndSet(this, current, updated)) {
+                return created.pool;
+            }
+        }
     }
 
     private MessageFormat createMessageFormat(Locale locale) {
@@ -76,6 +261,48 @@ final class MessageTemplate {
         return template;
     }
 
+    private record LocaleFormat(Locale locale, ObjectPool<MessageFormat> pool) {
+    }
+
+    final class BatchResolver implements AutoCloseable {
+        private final Locale locale;
+        private final StringBuilder builder = new StringBuilder();
+        private final StringBuffer buffer = new StringBuffer();
+        private ObjectPool<MessageFormat> pool;
+        private MessageFormat checkedOutFormat;
+
+        private BatchResolver(Locale locale) {
+            this.locale = locale;
+        }
+
+        String resolve(Object[] args) throws IOException {
+            expectNonNull(args, "args");
+            if (staticValue != null) {
+                return staticValue;
+            }
+            if (nativeFormat != null) {
+                builder.setLength(0);
+                nativeFormat.formatTo(builder, locale, argumentResolver.resolveArguments(args, usedArgumentIndexes));
+                return builder.toString();
+            }
+            if (checkedOutFormat == null) {
+                pool = getMessageFormatPool(locale);
+                checkedOutFormat = pool.acquire();
+            }
+            buffer.setLength(0);
+            checkedOutFormat.format(resolveIcuArguments(locale, args), buffer, new FieldPosition(0));
+            return buffer.toString();
+        }
+
+        @Override
+        public void close() {
+            if (checkedOutFormat != null) {
+                pool.release(checkedOutFormat);
+                checkedOutFormat = null;
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return "MessageTemplate{" + template + '}';
@@ -0,0 +1,56 @@
+package com.coditory.quark.i18n;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import static com.coditory.quark.i18n.Preconditions.expect;
+import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+
+/**
+ * Bounded cache of templates parsed for ad-hoc format calls, keyed by (locale, template).
+ * Templates are resolved with references for a given locale, so the locale is part of the key.
+ * Parsing errors are not cached.
+ */
+final class MessageTemplateCache {
+    static final int DEFAULT_CAPACITY = 256;
+
+    private final LruCache<Key, MessageTemplate> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final int capacity;
+
+    MessageTemplateCache(int capacity) {
+        expect(capacity >= 0, "Expected capacity >= 0. Got: " + capacity);
+        this.capacity = capacity;
+        this.cache = capacity > 0 ? new LruCache<>(capacity) : null;
+    }
+
+    MessageTemplate get(Locale locale, String template, Supplier<MessageTemplate> parser) {
+        expectNonNull(locale, "locale");
+        expectNonNull(template, "template");
+        expectNonNull(parser, "parser");
+        if (cache == null) {
+            misses.increment();
+            return parser.get();
+        }
+        Key key = new Key(locale, template);
+        MessageTemplate result = cache.get(key);
+        if (result != null) {
+            hits.increment();
+            return result;
+        }
+        misses.increment();
+        result = parser.get();
+        cache.put(key, result);
+        return result;
+    }
+
+    I18nTemplateCacheStats getStats() {
+        int size = cache == null ? 0 : cache.size();
+        return new I18nTemplateCacheStats(hits.sum(), misses.sum(), size, capacity);
+    }
+
+    private record Key(Locale locale, String template) {
+    }
+}
@@ -0,0 +1,218 @@
+package com.coditory.quark.i18n;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+
+/**
+ * Maps a query (locale, path) directly to the message template that wins the fallback resolution.
+ * Templates are stored per path in arrays indexed by the locale ordinal from {@link LocaleResolver}.
+ * An unknown sub-locale (like en-XX) shares the ordinal with its available parent (en).
+ */
+final class MessageTemplateIndex {
+    static MessageTemplateIndex build(
+            Map<I18nKey, LocalizedMessageTemplate> templates,
+            I18nKeyGenerator keyGenerator,
+            LocaleResolver localeResolver
+    ) {
+        expectNonNull(templates, "templates");
+        expectNonNull(keyGenerator, "keyGenerator");
+        expectNonNull(localeResolver, "localeResolver");
+        int locales = localeResolver.getAvailableLocalesByOrdinal().size();
+        Map<I18nPath, LocalizedMessageTemplate[]> stored = new HashMap<>();
+        for (Map.Entry<I18nKey, LocalizedMessageTemplate> entry : templates.entrySet()) {
+            I18nKey key = entry.getKey();
+            int ordinal = localeResolver.getAvailableLocaleOrdinal(key.locale());
+            LocalizedMessageTemplate[] row = stored.computeIfAbsent(key.path(), p -> new LocalizedMessageTemplate[locales]);
+            row[ordinal] = entry.getValue();
+        }
+        return build(Map.copyOf(stored), keyGenerator, localeResolver, null);
+    }
+
+    private static MessageTemplateIndex build(
+            Map<I18nPath, LocalizedMessageTemplate[]> stored,
+            I18nKeyGenerator keyGenerator,
+            LocaleResolver localeResolver,
+            I18nPath prefix
+    ) {
+        Set<I18nPath> queryPaths = new HashSet<>();
+        for (I18nPath path : stored.keySet()) {
+            queryPaths.addAll(keyGenerator.queryPaths(path, prefix));
+        }
+        List<Locale> locales = localeResolver.getAvailableLocalesByOrdinal();
+        Map<I18nPath, LocalizedMessageTemplate[]> resolved = new HashMap<>(queryPaths.size());
+        for (I18nPath path : queryPaths) {
+            LocalizedMessageTemplate[] row = new LocalizedMessageTemplate[locales.size()];
+            for (int i = 0; i < row.length; ++i) {
+                List<Locale> hierarchy = localeResolver.getLocaleHierarchy(locales.get(i));
+                row[i] = match(keyGenerator.keys(hierarchy, path, prefix), stored, localeResolver);
+            }
+            LocalizedMessageTemplate[] storedRow = stored.get(path);
+            // most paths are defined for all locales, so there is no need to keep a copy
+            resolved.put(path, Arrays.equals(row, storedRow) ? storedRow : row);
+        }
+        return new MessageTemplateIndex(stored, resolved, keyGenerator, localeResolver);
+    }
+
+    private static LocalizedMessageTemplate match(
+            List<I18nKey> keys,
+            Map<I18nPath, LocalizedMessageTemplate[]> stored,
+            LocaleResolver localeResolver
+    ) {
+        for (I18nKey key : keys) {
+            LocalizedMessageTemplate[] row = stored.get(key.path());
+            int ordinal = localeResolver.getAvailableLocaleOrdinal(key.locale());
+            if (row != null && ordinal >= 0 && row[ordinal] != null) {
+                return row[ordinal];
+            }
+        }
+        return null;
+    }
+
+    private final Map<I18nPath, LocalizedMessageTemplate[]> stored;
+    private final Map<I18nPath, LocalizedMessageTemplate[]> resolved;
+    private final I18nKeyGenerator keyGenerator;
+    private final LocaleResolver localeResolver;
+
+    private MessageTemplateIndex(
+            Map<I18nPath, LocalizedMessageTemplate[]> stored,
+            Map<I18nPath, LocalizedMessageTemplate[]> resolved,
+            I18nKeyGenerator keyGenerator,
+            LocaleResolver localeResolver
+    ) {
+        this.stored = stored;
+        this.resolved = Map.copyOf(resolved);
+        this.keyGenerator = keyGenerator;
+        this.localeResolver = localeResolver;
+    }
+
+    MessageTemplateIndex withQueryPrefix(I18nPath prefix) {
+        expectNonNull(prefix, "prefix");
+        return build(stored, keyGenerator, localeResolver, prefix);
+    }
+
+    @Nullable
+    LocalizedMessageTemplate get(I18nKey key) {
+        expectNonNull(key, "key");
+        LocalizedMessageTemplate[] row = resolved.get(key.path());
+        if (row == null) {
+            return null;
+        }
+        int ordinal = localeResolver.getLocaleOrdinal(key.locale());
+        return ordinal >= 0 ? row[ordinal] : null;
+    }
+
+    /**
+     * Returns -1 for locales that have no available locale in their hierarchy.
+     */
+    int getLocaleOrdinal(Locale locale) {
+        expectNonNull(locale, "locale");
+        return localeResolver.getLocaleOrdinal(locale);
+    }
+
+    /**
+     * Lookup with locale ordinal resolved once for multiple paths.
+     */
+    @Nullable
+    LocalizedMessageTemplate get(I18nPath path, int localeOrdinal) {
+        expectNonNull(path, "path");
+        if (localeOrdinal < 0) {
+            return null;
+        }
+        LocalizedMessageTemplate[] row = resolved.get(path);
+        return row != null ? row[localeOrdinal] : null;
+    }
+
+    /**
+     * Returns templates used by the locale, without compiling lazy templates.
+     */
+    Set<LocalizedMessageTemplate> getTemplates(Locale locale) {
+        expectNonNull(locale, "locale");
+        int ordinal = localeResolver.getLocaleOrdinal(locale);
+        if (ordinal < 0) {
+            return Set.of();
+        }
+        Set<LocalizedMessageTemplate> result = new HashSet<>();
+        for (LocalizedMessageTemplate[] row : resolved.values()) {
+            if (row[ordinal] != null) {
+                result.add(row[ordinal]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns all defined templates, without the ones resolved by fallbacks.
+     */
+    List<LocalizedMessageTemplate> getDefinedTemplates() {
+        List<LocalizedMessageTemplate> result = new ArrayList<>();
+        for (LocalizedMessageTemplate[] row : stored.values()) {
+            for (LocalizedMessageTemplate template : row) {
+                if (template != null) {
+                    result.add(template);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns effective templates for defined paths under the prefix, sorted by the relative path.
+     * Only locale fallbacks are applied, so paths resolved by message fallback paths are not duplicated.
+     * Lazy templates are exported without compiling them.
+     */
+    SortedMap<String, String> getTemplateValues(Locale locale, I18nPath prefix) {
+        expectNonNull(locale, "locale");
+        expectNonNull(prefix, "prefix");
+        SortedMap<String, String> result = new TreeMap<>();
+        int ordinal = localeResolver.getLocaleOrdinal(locale);
+        if (ordinal < 0) {
+            return result;
+        }
+        List<Locale> hierarchy = localeResolver.getLocaleHierarchy(localeResolver.getAvailableLocalesByOrdinal().get(ordinal));
+        for (I18nPath path : stored.keySet()) {
+            I18nPath relative = path.relativeTo(prefix);
+            LocalizedMessageTemplate template = relative != null && !relative.isRoot()
+                    ? matchLocale(keyGenerator.keys(hierarchy, path, null), path)
+                    : null;
+            if (template != null) {
+                result.put(relative.getValue(), template.value());
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private LocalizedMessageTemplate matchLocale(List<I18nKey> keys, I18nPath path) {
+        LocalizedMessageTemplate[] row = stored.get(path);
+        for (I18nKey key : keys) {
+            int ordinal = localeResolver.getAvailableLocaleOrdinal(key.locale());
+            if (key.path().equals(path) && ordinal >= 0 && row[ordinal] != null) {
+                return row[ordinal];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns templates indexed by locale ordinal. Returned array must not be modified.
+     */
+    LocalizedMessageTemplate[] getByLocaleOrdinal(I18nPath path) {
+        expectNonNull(path, "path");
+        LocalizedMessageTemplate[] row = resolved.get(path);
+        return row != null
+                ? row
+                : new LocalizedMessageTemplate[localeResolver.getAvailableLocalesByOrdinal().size()];
+    }
+}
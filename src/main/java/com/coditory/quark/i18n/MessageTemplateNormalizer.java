@@ -14,7 +14,44 @@ final class MessageTemplateNormalizer {
         if (!normalizeWhiteSpaces) {
             return template;
         }
-        return template.trim()
-                .replaceAll("\\s+", " ");
+        return normalizeWhiteSpaces(template);
+    }
+
+    /**
+     * Same as {@code template.trim().replaceAll("\\s+", " ")} in a single scan.
+     * Returns the same instance if there is nothing to normalize.
+     */
+    static String normalizeWhiteSpaces(String template) {
+        int start = 0;
+        int end = template.length();
+        while (start < end && template.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && template.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        char[] result = new char[end - start];
+        int length = 0;
+        boolean changed = start > 0 || end < template.length();
+        boolean whitespace = false;
+        for (int i = start; i < end; ++i) {
+            char c = template.charAt(i);
+            if (!isWhitespace(c)) {
+                result[length++] = c;
+                whitespace = false;
+            } else if (whitespace) {
+                changed = true;
+            } else {
+                changed |= c != ' ';
+                result[length++] = ' ';
+                whitespace = true;
+            }
+        }
+        return changed ? new String(result, 0, length) : template;
+    }
+
+    // whitespace characters matched by regex "\s"
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 }
@@ -1,45 +1,193 @@
 package com.coditory.quark.i18n;
 
 import com.coditory.quark.i18n.loader.I18nMessageBundle;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import static com.coditory.quark.i18n.Preconditions.expectNonNull;
 
 final class MessageTemplateParser {
+    private static final int PARALLEL_CHUNK_SIZE = 256;
     private final ReferenceResolver referenceResolver;
     private final ArgumentResolver argumentResolver;
     private final MessageTemplateNormalizer messageTemplateNormalizer;
+    private final SharedFormats sharedFormats;
 
-    public MessageTemplateParser(ReferenceResolver referenceResolver, ArgumentResolver argumentResolver, MessageTemplateNormalizer messageTemplateNormalizer) {
+    public MessageTemplateParser(
+            ReferenceResolver referenceResolver,
+            ArgumentResolver argumentResolver,
+            MessageTemplateNormalizer messageTemplateNormalizer,
+            SharedFormats sharedFormats
+    ) {
         this.referenceResolver = expectNonNull(referenceResolver, "referenceResolver");
         this.argumentResolver = expectNonNull(argumentResolver, "argumentResolver");
         this.messageTemplateNormalizer = expectNonNull(messageTemplateNormalizer, "messageTemplateNormalizer");
+        this.sharedFormats = expectNonNull(sharedFormats, "sharedFormats");
     }
 
-    Map<I18nKey, MessageTemplate> parseTemplates(List<I18nMessageBundle> bundles) {
+    ArgumentResolver getArgumentResolver() {
+        return argumentResolver;
+    }
+
+    SharedFormats getSharedFormats() {
+        return sharedFormats;
+    }
+
+    /**
+     * Parses templates in chunks on the executor. Without an executor templates are parsed sequentially.
+     * Result and the reported error (the first invalid template in bundle order) are the same in both modes.
+     */
+    Map<I18nKey, LocalizedMessageTemplate> parseTemplates(List<I18nMessageBundle> bundles, @Nullable Executor executor) {
         expectNonNull(bundles, "bundles");
-        Map<I18nKey, MessageTemplate> result = new HashMap<>();
+        List<Map.Entry<I18nKey, String>> entries = new ArrayList<>();
+        for (I18nMessageBundle bundle : bundles) {
+            entries.addAll(bundle.templates().entrySet());
+        }
+        MessageTemplate[] templates = parseEntries(entries, executor);
+        Map<I18nKey, LocalizedMessageTemplate> result = new HashMap<>();
+        for (int i = 0; i < templates.length; ++i) {
+            I18nKey key = entries.get(i).getKey();
+            result.put(key, LocalizedMessageTemplate.compiled(key, templates[i]));
+        }
+        return result;
+    }
+
+    private MessageTemplate[] parseEntries(List<Map.Entry<I18nKey, String>> entries, @Nullable Executor executor) {
+        MessageTemplate[] result = new MessageTemplate[entries.size()];
+        if (executor == null || entries.size() <= PARALLEL_CHUNK_SIZE) {
+            for (int i = 0; i < result.length; ++i) {
+                result[i] = parseTemplate(entries.get(i).getKey(), entries.get(i).getValue());
+            }
+            return result;
+        }
+        RuntimeException[] errors = new RuntimeException[result.length];
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int start = 0; start < result.length; start += PARALLEL_CHUNK_SIZE) {
+            int from = start;
+            int to = Math.min(result.length, start + PARALLEL_CHUNK_SIZE);
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; ++i) {
+                    try {
+                        result[i] = parseTemplate(entries.get(i).getKey(), entries.get(i).getValue());
+                    } catch (RuntimeException e) {
+                        errors[i] = e;
+                    }
+                }
+            }, executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        for (RuntimeException error : errors) {
+            if (error != null) {
+                throw error;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns templates that are parsed on first use.
+     * References are resolved eagerly, so missing and cyclic references are still reported by the build.
+     */
+    Map<I18nKey, LocalizedMessageTemplate> parseTemplatesLazily(List<I18nMessageBundle> bundles) {
+        expectNonNull(bundles, "bundles");
+        Map<I18nKey, LocalizedMessageTemplate> result = new HashMap<>();
         for (I18nMessageBundle bundle : bundles) {
             for (Map.Entry<I18nKey, String> entry : bundle.templates().entrySet()) {
                 I18nKey key = entry.getKey();
-                String value = entry.getValue();
-                MessageTemplate template = parseTemplate(key, value);
+                result.put(key, LocalizedMessageTemplate.lazy(key, resolveTemplate(key, entry.getValue()), this));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Parses only templates that changed since the previous build and templates that reference them.
+     * Other compiled templates are reused together with their locale specific formats,
+     * so the parser must share {@link SharedFormats} with the previous parser.
+     * Returns null when messages were added or removed, so all templates must be parsed again.
+     */
+    @Nullable
+    Map<I18nKey, LocalizedMessageTemplate> parseChangedTemplates(
+            List<I18nMessageBundle> bundles,
+            MessageTemplateParser previousParser,
+            List<LocalizedMessageTemplate> previousTemplates,
+            boolean lazy,
+            @Nullable Executor executor
+    ) {
+        expectNonNull(bundles, "bundles");
+        expectNonNull(previousParser, "previousParser");
+        expectNonNull(previousTemplates, "previousTemplates");
+        // snapshot before reading dependencies, a lazy template may be compiled concurrently
+        List<LocalizedMessageTemplate> compiled = new ArrayList<>();
+        for (LocalizedMessageTemplate template : previousTemplates) {
+            if (template.isCompiled()) {
+                compiled.add(template);
+            }
+        }
+        Set<I18nKey> changed = referenceResolver.getChangedKeys(previousParser.referenceResolver);
+        if (changed == null) {
+            return null;
+        }
+        Set<I18nKey> outdated = previousParser.referenceResolver.withDependents(changed);
+        referenceResolver.reuse(previousParser.referenceResolver, outdated);
+        Map<I18nKey, LocalizedMessageTemplate> result = new HashMap<>();
+        for (LocalizedMessageTemplate template : compiled) {
+            I18nKey key = template.key();
+            if (!outdated.contains(key)) {
                 result.put(key, template);
             }
         }
+        List<Map.Entry<I18nKey, String>> entries = new ArrayList<>();
+        for (I18nMessageBundle bundle : bundles) {
+            for (Map.Entry<I18nKey, String> entry : bundle.templates().entrySet()) {
+                if (!result.containsKey(entry.getKey())) {
+                    entries.add(entry);
+                }
+            }
+        }
+        if (lazy) {
+            for (Map.Entry<I18nKey, String> entry : entries) {
+                I18nKey key = entry.getKey();
+                result.put(key, LocalizedMessageTemplate.lazy(key, resolveTemplate(key, entry.getValue()), this));
+            }
+            return result;
+        }
+        MessageTemplate[] templates = parseEntries(entries, executor);
+        for (int i = 0; i < templates.length; ++i) {
+            I18nKey key = entries.get(i).getKey();
+            result.put(key, LocalizedMessageTemplate.compiled(key, templates[i]));
+        }
         return result;
     }
 
     MessageTemplate parseTemplate(I18nKey key, String template) {
+        return parseResolvedTemplate(resolveTemplate(key, template));
+    }
+
+    /**
+     * Returns normalized template with resolved references.
+     */
+    String resolveTemplate(I18nKey key, String template) {
         expectNonNull(key, "key");
         expectNonNull(template, "template");
         template = messageTemplateNormalizer.normalize(template);
-        template = referenceResolver.resolveReferences(key, template);
-        return MessageTemplate.parse(template, argumentResolver);
+        return referenceResolver.resolveReferences(key, template);
+    }
+
+    /**
+     * Parses template returned by {@link #resolveTemplate(I18nKey, String)}.
+     */
+    MessageTemplate parseResolvedTemplate(String template) {
+        expectNonNull(template, "template");
+        return MessageTemplate.parse(template, argumentResolver, sharedFormats);
     }
 
     MessageTemplate parseTemplate(Locale locale, String template) {
@@ -47,6 +195,6 @@ final class MessageTemplateParser {
         expectNonNull(template, "template");
         template = messageTemplateNormalizer.normalize(template);
         template = referenceResolver.resolveReferences(locale, template);
-        return MessageTemplate.parse(template, argumentResolver);
+        return MessageTemplate.parse(template, argumentResolver, sharedFormats);
     }
 }
@@ -0,0 +1,210 @@
+package com.coditory.quark.i18n;
+
+import com.coditory.quark.i18n.SharedFormats.SharedFormat;
+import com.ibm.icu.text.MessagePattern;
+import com.ibm.icu.text.MessagePattern.ArgType;
+import com.ibm.icu.text.MessagePattern.Part;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+
+/**
+ * Renders templates that contain only plain placeholders like "{0}" or "{name}"
+ * and simple formatted arguments like "{0,number}" or "{0,date,short}"
+ * without going through ICU MessageFormat. The template is compiled to a flat
+ * list of literals and arguments using ICU MessagePattern, so quoting rules are the same as in ICU.
+ * <p>
+ * Argument formats are taken from {@link SharedFormats}, so they are shared with other templates.
+ * Templates with plural, select or choice arguments are not compiled.
+ */
+final class NativeMessageFormat {
+    @Nullable
+    static NativeMessageFormat compile(String template, SharedFormats sharedFormats) {
+        expectNonNull(template, "template");
+        return compile(new MessagePattern(template), sharedFormats);
+    }
+
+    @Nullable
+    static NativeMessageFormat compile(MessagePattern pattern, SharedFormats sharedFormats) {
+        expectNonNull(pattern, "pattern");
+        expectNonNull(sharedFormats, "sharedFormats");
+        if (pattern.hasNamedArguments() && pattern.hasNumberedArguments()) {
+            return null;
+        }
+        String value = pattern.getPatternString();
+        List<String> literals = new ArrayList<>();
+        List<String> argNames = new ArrayList<>();
+        List<Integer> argIndexes = new ArrayList<>();
+        List<SharedFormat> argFormats = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int prevIndex = pattern.getPart(0).getLimit();
+        for (int i = 1; ; ++i) {
+            Part part = pattern.getPart(i);
+            Part.Type type = part.getType();
+            literal.append(value, prevIndex, part.getIndex());
+            if (type == Part.Type.MSG_LIMIT) {
+                break;
+            }
+            prevIndex = part.getLimit();
+            if (type == Part.Type.REPLACE_NUMBER) {
+                return null;
+            }
+            if (type != Part.Type.ARG_START) {
+                continue;
+            }
+            SharedFormat format = null;
+            if (part.getArgType() == ArgType.SIMPLE) {
+                Part stylePart = pattern.getPart(i + 3);
+                String argType = pattern.getSubstring(pattern.getPart(i + 2));
+                String argStyle = stylePart.getType() == Part.Type.ARG_STYLE
+                        ? pattern.getSubstring(stylePart)
+                        : "";
+                format = sharedFormats.getFormat(argType, argStyle);
+                if (format == null) {
+                    return null;
+                }
+            } else if (part.getArgType() != ArgType.NONE) {
+                return null;
+            }
+            int argLimit = pattern.getLimitPartIndex(i);
+            Part argPart = pattern.getPart(i + 1);
+            literals.add(literal.toString());
+            literal.setLength(0);
+            argNames.add(pattern.getSubstring(argPart));
+            argIndexes.add(argPart.getType() == Part.Type.ARG_NUMBER ? argPart.getValue() : -1);
+            argFormats.add(format);
+            prevIndex = pattern.getPart(argLimit).getLimit();
+            i = argLimit;
+        }
+        literals.add(literal.toString());
+        return new NativeMessageFormat(
+                literals.toArray(new String[0]),
+                argNames.toArray(new String[0]),
+                argIndexes.stream().mapToInt(Integer::intValue).toArray(),
+                argFormats.toArray(new SharedFormat[0]),
+                pattern.hasNamedArguments(),
+                sharedFormats
+        );
+    }
+
+    private final String[] literals;
+    private final String[] argNames;
+    private final int[] argIndexes;
+    private final SharedFormat[] argFormats;
+    private final boolean namedArguments;
+    private final SharedFormats sharedFormats;
+    private final int literalsLength;
+
+    private NativeMessageFormat(
+            String[] literals,
+            String[] argNames,
+            int[] argIndexes,
+            SharedFormat[] argFormats,
+            boolean namedArguments,
+            SharedFormats sharedFormats
+    ) {
+        this.literals = literals;
+        this.argNames = argNames;
+        this.argIndexes = argIndexes;
+        this.argFormats = argFormats;
+        this.namedArguments = namedArguments;
+        this.sharedFormats = sharedFormats;
+        int literalsLength = 0;
+        for (String literal : literals) {
+            literalsLength += literal.length();
+        }
+        this.literalsLength = literalsLength;
+    }
+
+    String format(Locale locale, Object[] args) {
+        StringBuilder result = new StringBuilder(literalsLength + 16 * argIndexes.length);
+        try {
+            formatTo(result, locale, args);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+
+    String format(Locale locale, Map<String, Object> args) {
+        StringBuilder result = new StringBuilder(literalsLength + 16 * argNames.length);
+        try {
+            formatTo(result, locale, args);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+
+    void formatTo(Appendable result, Locale locale, Object[] args) throws IOException {
+        if (namedArguments) {
+            throw new IllegalArgumentException("This method is not available in MessageFormat objects " +
+                    "that use alphanumeric argument names.");
+        }
+        for (int i = 0; i < argIndexes.length; ++i) {
+            result.append(literals[i]);
+            int index = argIndexes[i];
+            if (index < args.length) {
+                appendArgument(result, locale, argFormats[i], args[index]);
+            } else {
+                appendMissingArgument(result, argNames[i]);
+            }
+        }
+        result.append(literals[literals.length - 1]);
+    }
+
+    void formatTo(Appendable result, Locale locale, Map<String, Object> args) throws IOException {
+        for (int i = 0; i < argNames.length; ++i) {
+            result.append(literals[i]);
+            String name = argNames[i];
+            if (args.containsKey(name)) {
+                appendArgument(result, locale, argFormats[i], args.get(name));
+            } else {
+                appendMissingArgument(result, name);
+            }
+        }
+        result.append(literals[literals.length - 1]);
+    }
+
+    void warmUp(Locale locale) {
+        for (SharedFormat format : argFormats) {
+            if (format != null) {
+                format.warmUp(locale);
+            }
+        }
+    }
+
+    boolean isWarmedUp(Locale locale) {
+        for (SharedFormat format : argFormats) {
+            if (format != null && !format.isWarmedUp(locale)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void appendArgument(Appendable result, Locale locale, SharedFormat format, Object arg) throws IOException {
+        if (arg == null) {
+            result.append("null");
+        } else if (format != null) {
+            format.formatTo(result, locale, arg);
+        } else if (arg instanceof Number) {
+            sharedFormats.stockNumberFormat().formatTo(result, locale, arg);
+        } else if (sharedFormats.isDate(arg)) {
+            sharedFormats.stockDateFormat().formatTo(result, locale, arg);
+        } else {
+            result.append(arg.toString());
+        }
+    }
+
+    private void appendMissingArgument(Appendable result, String name) throws IOException {
+        result.append('{').append(name).append('}');
+    }
+}
@@ -0,0 +1,76 @@
+package com.coditory.quark.i18n;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import static com.coditory.quark.i18n.Preconditions.expect;
+import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+
+/**
+ * Bounded pool of objects that must not be shared between threads.
+ * Threads are spread across slots by thread id, so under steady load a thread usually
+ * takes and returns an instance from its own slot. Pool never blocks (no locks, so it does not pin virtual threads).
+ * New instance is created when all slots are empty and dropped when all slots are taken.
+ * Default capacity fits pools shared by the whole message pack,
+ * pools created per template should keep only a few idle instances.
+ */
+final class ObjectPool<T> {
+    private static final int DEFAULT_CAPACITY = Math.min(Runtime.getRuntime().availableProcessors(), 16);
+
+    private final Supplier<T> factory;
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+
+    ObjectPool(Supplier<T> factory) {
+        this(factory, DEFAULT_CAPACITY);
+    }
+
+    ObjectPool(Supplier<T> factory, int capacity) {
+        expect(capacity > 0, "Expected capacity > 0. Got: " + capacity);
+        this.factory = expectNonNull(factory, "factory");
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    T acquire() {
+        int stripe = stripe();
+        for (int i = 0; i < slots.length(); ++i) {
+            int index = (stripe + i) & mask;
+            T value = slots.get(index);
+            if (value != null && slots.compareAndSet(index, value, null)) {
+                return value;
+            }
+        }
+        return factory.get();
+    }
+
+    void release(T value) {
+        int stripe = stripe();
+        for (int i = 0; i < slots.length(); ++i) {
+            int index = (stripe + i) & mask;
+            if (slots.get(index) == null && slots.compareAndSet(index, null, value)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of instances waiting in the pool.
+     */
+    int idleCount() {
+        int count = 0;
+        for (int i = 0; i < slots.length(); ++i) {
+            if (slots.get(i) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32));
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -1,22 +1,41 @@
 package com.coditory.quark.i18n;
 
 import com.coditory.quark.i18n.loader.I18nMessageBundle;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
-import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.coditory.quark.i18n.Preconditions.expectNonNull;
 import static java.util.Collections.unmodifiableMap;
+import static java.util.stream.Collectors.joining;
 
+/**
+ * Resolves references over the graph of referenced messages.
+ * Nested references are resolved in the locale and bundle of the referencing message,
+ * so a reference resolved by a fallback locale still prefers messages from the requested locale.
+ * Each reference is resolved once per (locale, bundle prefix, path) and reused by all messages referencing it.
+ * <p>
+ * Resolver keeps a reverse index of references (referenced key to dependent keys),
+ * so a reload can find templates affected by changed messages.
+ */
 final class ReferenceResolver {
     private final Map<I18nKey, I18nMessageBundle> bundles;
     private final Map<I18nKey, String> templates;
     private final I18nKeyGenerator keyGenerator;
     private final boolean resolveReferences;
+    private final ConcurrentHashMap<ReferenceQuery, String> resolvedReferences = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ReferenceQuery, I18nKey> referencedKeys = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<I18nKey, Set<I18nKey>> dependents = new ConcurrentHashMap<>();
 
     ReferenceResolver(List<I18nMessageBundle> bundles, I18nKeyGenerator keyGenerator, boolean resolveReferences) {
         expectNonNull(bundles, "bundles");
@@ -37,100 +56,260 @@ final class ReferenceResolver {
     String resolveReferences(I18nKey key, String template) {
         expectNonNull(key, "key");
         expectNonNull(template, "template");
-        return resolveReferences(key.locale(), key.path(), template, 0);
+        if (!resolveReferences) {
+            return template;
+        }
+        I18nPath bundlePrefix = getBundlePrefix(key);
+        ReferenceQuery query = new ReferenceQuery(key.locale(), bundlePrefix, key.path());
+        String resolved = resolvedReferences.get(query);
+        if (resolved != null && key.equals(referencedKeys.get(query)) && template.equals(templates.get(key))) {
+            return resolved;
+        }
+        ParsedTemplate parsed = ParsedTemplate.parse(template);
+        if (parsed == null) {
+            return template;
+        }
+        List<I18nKey> stack = new ArrayList<>();
+        stack.add(key);
+        return render(parsed, key.locale(), bundlePrefix, stack);
     }
 
     String resolveReferences(Locale locale, String template) {
         expectNonNull(locale, "locale");
         expectNonNull(template, "template");
-        return resolveReferences(locale, null, template, 0);
-    }
-
-    private String resolveReferences(Locale locale, I18nPath path, String template, int iteration) {
         if (!resolveReferences) {
             return template;
         }
-        if (!template.contains("$")) {
-            return template;
+        ParsedTemplate parsed = ParsedTemplate.parse(template);
+        return parsed != null
+                ? render(parsed, locale, null, new ArrayList<>())
+                : template;
+    }
+
+    private String render(ParsedTemplate parsed, Locale locale, I18nPath bundlePrefix, List<I18nKey> stack) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < parsed.references.length; ++i) {
+            result.append(parsed.literals[i]);
+            result.append(resolveReference(locale, bundlePrefix, parsed.references[i], stack));
         }
-        if (iteration + 1 > 10) {
-            throw new IllegalArgumentException("Detected potential cyclic reference");
+        result.append(parsed.literals[parsed.references.length]);
+        return result.toString();
+    }
+
+    private String resolveReference(Locale locale, I18nPath bundlePrefix, I18nPath referencePath, List<I18nKey> stack) {
+        ReferenceQuery query = new ReferenceQuery(locale, bundlePrefix, referencePath);
+        I18nKey key = getReferencedKey(query);
+        if (!stack.isEmpty()) {
+            addDependent(key, stack.get(stack.size() - 1));
         }
-        StringBuilder result = new StringBuilder();
-        StringBuilder reference = new StringBuilder();
-        boolean modified = false;
-        boolean dollar = false;
-        boolean brace = false;
-        boolean escaped = false;
-        for (PrimitiveIterator.OfInt it = template.codePoints().iterator(); it.hasNext(); ) {
-            int c = it.next();
-            if (c == '\\') {
-                escaped = true;
-            } else if (escaped) {
-                if (c != '$') {
-                    result.append('\\');
-                } else {
-                    modified = true;
-                }
-                result.append(c);
-                escaped = false;
-            } else if (c == '$') {
-                modified = true;
-                dollar = true;
-            } else if (c == '{' && brace) {
-                throw new IllegalArgumentException("Duplicated '{'");
-            } else if (c == '{' && dollar && !reference.isEmpty()) {
-                throw new IllegalArgumentException("Unexpected '{'");
-            } else if (c == '{' && dollar) {
-                brace = true;
-            } else if ((c == '}' && brace) || (dollar && !brace && !isReferenceChar(c)) || (!it.hasNext() && dollar && !brace)) {
-                if (!it.hasNext() && isReferenceChar(c)) {
-                    reference.appendCodePoint(c);
-                }
-                I18nPath referencePath = I18nPath.of(reference.toString());
-                String referenceTemplate = resolveReference(locale, path, referencePath);
-                result.append(referenceTemplate);
-                if (c != '}' && it.hasNext()) {
-                    result.appendCodePoint(c);
-                }
-                reference = new StringBuilder();
-                dollar = false;
-                brace = false;
-            } else if (dollar) {
-                if (isReferenceChar(c)) {
-                    reference.appendCodePoint(c);
+        String resolved = resolvedReferences.get(query);
+        if (resolved != null) {
+            return resolved;
+        }
+        int cycleStart = stack.indexOf(key);
+        if (cycleStart >= 0) {
+            List<I18nKey> cycle = new ArrayList<>(stack.subList(cycleStart, stack.size()));
+            cycle.add(key);
+            throw new IllegalArgumentException("Detected cyclic reference: " + cycle.stream()
+                    .map(I18nKey::toShortString)
+                    .collect(joining(" -> ")));
+        }
+        String template = templates.get(key);
+        ParsedTemplate parsed = ParsedTemplate.parse(template);
+        if (parsed == null) {
+            resolved = template;
+        } else {
+            stack.add(key);
+            resolved = render(parsed, locale, bundlePrefix, stack);
+            stack.remove(stack.size() - 1);
+        }
+        // no computeIfAbsent, resolution is recursive
+        String previous = resolvedReferences.putIfAbsent(query, resolved);
+        return previous != null ? previous : resolved;
+    }
+
+    private void addDependent(I18nKey key, I18nKey dependent) {
+        Set<I18nKey> keys = dependents.get(key);
+        if (keys == null) {
+            keys = dependents.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+        }
+        keys.add(dependent);
+    }
+
+    /**
+     * Returns keys with changed templates or bundle prefixes.
+     * Returns null when messages were added or removed, as it may change the resolution of any reference.
+     */
+    @Nullable
+    Set<I18nKey> getChangedKeys(ReferenceResolver previous) {
+        expectNonNull(previous, "previous");
+        if (!templates.keySet().equals(previous.templates.keySet())) {
+            return null;
+        }
+        Set<I18nKey> result = new HashSet<>();
+        for (Map.Entry<I18nKey, String> entry : templates.entrySet()) {
+            I18nKey key = entry.getKey();
+            if (!entry.getValue().equals(previous.templates.get(key))
+                    || !Objects.equals(getBundlePrefix(key), previous.getBundlePrefix(key))) {
+                result.add(key);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns given keys with all keys that reference them directly or transitively.
+     */
+    Set<I18nKey> withDependents(Set<I18nKey> keys) {
+        expectNonNull(keys, "keys");
+        Set<I18nKey> result = new HashSet<>(keys);
+        Deque<I18nKey> queue = new ArrayDeque<>(keys);
+        while (!queue.isEmpty()) {
+            Set<I18nKey> keyDependents = dependents.get(queue.removeFirst());
+            if (keyDependents != null) {
+                for (I18nKey dependent : keyDependents) {
+                    if (result.add(dependent)) {
+                        queue.addLast(dependent);
+                    }
                 }
-            } else {
-                result.appendCodePoint(c);
             }
         }
-        if (dollar || brace) {
-            throw new IllegalArgumentException("Invalid reference");
+        return result;
+    }
+
+    /**
+     * Copies resolved references and reverse index entries of keys that are not outdated.
+     * Expects the same set of keys in both resolvers.
+     */
+    void reuse(ReferenceResolver previous, Set<I18nKey> outdated) {
+        expectNonNull(previous, "previous");
+        expectNonNull(outdated, "outdated");
+        referencedKeys.putAll(previous.referencedKeys);
+        previous.resolvedReferences.forEach((query, value) -> {
+            I18nKey key = previous.referencedKeys.get(query);
+            if (key != null && !outdated.contains(key)) {
+                resolvedReferences.putIfAbsent(query, value);
+            }
+        });
+        previous.dependents.forEach((key, keyDependents) -> {
+            for (I18nKey dependent : keyDependents) {
+                if (!outdated.contains(dependent)) {
+                    addDependent(key, dependent);
+                }
+            }
+        });
+    }
+
+    private I18nKey getReferencedKey(ReferenceQuery query) {
+        I18nKey key = referencedKeys.get(query);
+        if (key != null) {
+            return key;
         }
-        if (escaped) {
-            result.append('\\');
+        I18nKey referenceKey = I18nKey.of(query.locale(), query.path());
+        List<I18nKey> keys = query.bundlePrefix() != null
+                ? keyGenerator.keys(referenceKey, query.bundlePrefix())
+                : keyGenerator.keys(referenceKey);
+        for (I18nKey candidate : keys) {
+            if (templates.containsKey(candidate)) {
+                referencedKeys.putIfAbsent(query, candidate);
+                return candidate;
+            }
         }
-        return modified
-                ? resolveReferences(locale, path, result.toString(), iteration + 1)
-                : template;
+        throw new I18nMessagesException("Missing reference: " + query.path());
     }
 
-    private boolean isReferenceChar(int codePoint) {
-        return codePoint == '-' || codePoint == '_' || codePoint == '.' || Character.isLetterOrDigit(codePoint);
+    /**
+     * Returns null for messages without a bundle prefix, so they share resolved references with ad hoc templates.
+     */
+    @Nullable
+    private I18nPath getBundlePrefix(I18nKey key) {
+        I18nMessageBundle bundle = bundles.get(key);
+        return bundle != null && !bundle.prefix().isRoot() ? bundle.prefix() : null;
     }
 
-    private String resolveReference(Locale locale, I18nPath sourcePath, I18nPath referencePath) {
-        I18nKey referenceKey = I18nKey.of(locale, referencePath);
-        I18nMessageBundle bundle = sourcePath != null
-                ? bundles.get(I18nKey.of(locale, sourcePath))
-                : null;
-        List<I18nKey> keys = bundle != null && bundle.prefix() != null
-                ? keyGenerator.keys(referenceKey, bundle.prefix())
-                : keyGenerator.keys(referenceKey);
-        return keys.stream()
-                .map(templates::get)
-                .filter(Objects::nonNull)
-                .findFirst()
-                .orElseThrow(() -> new I18nMessagesException("Missing reference: " + referencePath));
+    private record ReferenceQuery(Locale locale, I18nPath bundlePrefix, I18nPath path) {
+    }
+
+    /**
+     * Template split into literals and references: literal[0] ref[0] literal[1] ... literal[n].
+     */
+    private static final class ParsedTemplate {
+        private final String[] literals;
+        private final I18nPath[] references;
+
+        private ParsedTemplate(String[] literals, I18nPath[] references) {
+            this.literals = literals;
+            this.references = references;
+        }
+
+        /**
+         * Returns null for templates without references and escaped dollars.
+         */
+        static ParsedTemplate parse(String template) {
+            if (template.indexOf('$') < 0) {
+                return null;
+            }
+            List<String> literals = new ArrayList<>();
+            List<I18nPath> references = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            StringBuilder reference = new StringBuilder();
+            boolean dollar = false;
+            boolean brace = false;
+            boolean escaped = false;
+            int length = template.length();
+            for (int i = 0; i < length; ) {
+                int c = template.codePointAt(i);
+                i += Character.charCount(c);
+                boolean hasNext = i < length;
+                if (c == '\\' && !escaped) {
+                    escaped = true;
+                } else if (escaped) {
+                    if (c != '$') {
+                        literal.append('\\');
+                    }
+                    literal.appendCodePoint(c);
+                    escaped = false;
+                } else if (c == '$') {
+                    dollar = true;
+                } else if (c == '{' && brace) {
+                    throw new IllegalArgumentException("Duplicated '{'");
+                } else if (c == '{' && dollar && !reference.isEmpty()) {
+                    throw new IllegalArgumentException("Unexpected '{'");
+                } else if (c == '{' && dollar) {
+                    brace = true;
+                } else if ((c == '}' && brace) || (dollar && !brace && !isReferenceChar(c)) || (!hasNext && dollar && !brace)) {
+                    if (!hasNext && dollar && !brace && isReferenceChar(c)) {
+                        reference.appendCodePoint(c);
+                    }
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    references.add(I18nPath.of(reference.toString()));
+                    if (!brace && !isReferenceChar(c)) {
+                        literal.appendCodePoint(c);
+                    }
+                    reference.setLength(0);
+                    dollar = false;
+                    brace = false;
+                } else if (dollar) {
+                    if (isReferenceChar(c)) {
+                        reference.appendCodePoint(c);
+                    }
+                } else {
+                    literal.appendCodePoint(c);
+                }
+            }
+            if (dollar || brace) {
+                throw new IllegalArgumentException("Invalid reference");
+            }
+            if (escaped) {
+                literal.append('\\');
+            }
+            literals.add(literal.toString());
+            return new ParsedTemplate(literals.toArray(new String[0]), references.toArray(new I18nPath[0]));
+        }
+
+        private static boolean isReferenceChar(int codePoint) {
+            return codePoint == '-' || codePoint == '_' || codePoint == '.' || Character.isLetterOrDigit(codePoint);
+        }
     }
 }
@@ -4,19 +4,29 @@ import com.coditory.quark.i18n.loader.I18nMessageBundle;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
 
 import static com.coditory.quark.i18n.Preconditions.expectNonNull;
 
 public final class Reloadable18nMessagePack implements I18nMessagePack {
-    private final Function<List<I18nMessageBundle>, I18nMessagePack> i18nMessagePackCreator;
+    private final BiFunction<List<I18nMessageBundle>, I18nMessagePack, I18nMessagePack> i18nMessagePackCreator;
     private final AggregatedI18nLoader loader;
     private volatile I18nMessagePack i18nMessagePack;
 
-    Reloadable18nMessagePack(AggregatedI18nLoader loader, Function<List<I18nMessageBundle>, I18nMessagePack> i18nMessagePackCreator) {
+    /**
+     * Creator receives loaded bundles and the previous pack (null on the first load) to reuse unchanged templates.
+     */
+    Reloadable18nMessagePack(
+            AggregatedI18nLoader loader,
+            BiFunction<List<I18nMessageBundle>, I18nMessagePack, I18nMessagePack> i18nMessagePackCreator
+    ) {
         expectNonNull(i18nMessagePackCreator, "i18nMessagePackCreator");
         expectNonNull(loader, "loader");
         this.i18nMessagePackCreator = i18nMessagePackCreator;
@@ -29,7 +39,7 @@ public final class Reloadable18nMessagePack implements I18nMessagePack {
     }
 
     private void reload(List<I18nMessageBundle> bundles) {
-        this.i18nMessagePack = i18nMessagePackCreator.apply(bundles);
+        this.i18nMessagePack = i18nMessagePackCreator.apply(bundles, i18nMessagePack);
     }
 
     public synchronized void startWatching() {
@@ -40,6 +50,41 @@ public final class Reloadable18nMessagePack implements I18nMessagePack {
         loader.stopWatching();
     }
 
+    @Override
+    public @NotNull Map<I18nPath, String> resolveAll(@NotNull Locale locale, @NotNull Collection<I18nPath> paths, Object... args) {
+        return i18nMessagePack.resolveAll(locale, paths, args);
+    }
+
+    @Override
+    public @NotNull List<String> formatAll(@NotNull I18nKey key, @NotNull List<Object[]> rows) {
+        return i18nMessagePack.formatAll(key, rows);
+    }
+
+    @Override
+    public @NotNull List<String> formatAllParallel(@NotNull I18nKey key, @NotNull List<Object[]> rows) {
+        return i18nMessagePack.formatAllParallel(key, rows);
+    }
+
+    @Override
+    public @NotNull Stream<String> formatAll(@NotNull I18nKey key, @NotNull Stream<Object[]> rows) {
+        return i18nMessagePack.formatAll(key, rows);
+    }
+
+    @Override
+    public @NotNull I18nBundleExport exportBundle(@NotNull Locale locale, @NotNull I18nPath prefix) {
+        return i18nMessagePack.exportBundle(locale, prefix);
+    }
+
+    @Override
+    public @NotNull I18nTemplateCacheStats getTemplateCacheStats() {
+        return i18nMessagePack.getTemplateCacheStats();
+    }
+
+    @Override
+    public @NotNull Map<Locale, I18nWarmUpReport> getWarmUpReports() {
+        return i18nMessagePack.getWarmUpReports();
+    }
+
     @Override
     public @NotNull I18nMessages localize(@NotNull Locale locale) {
         return i18nMessagePack.localize(locale);
@@ -50,6 +95,12 @@ public final class Reloadable18nMessagePack implements I18nMessagePack {
         return i18nMessagePack.prefixQueries(prefix);
     }
 
+    @Override
+    public @NotNull I18nMessageHandle handle(@NotNull I18nPath path) {
+        expectNonNull(path, "path");
+        return new ReloadableI18nMessageHandle(path);
+    }
+
     @Override
     public @NotNull String getMessage(@NotNull I18nKey key, Object... args) {
         return i18nMessagePack.getMessage(key, args);
@@ -77,6 +128,26 @@ public final class Reloadable18nMessagePack implements I18nMessagePack {
         return i18nMessagePack.getMessage(locale, key, args);
     }
 
+    @Override
+    public void formatTo(@NotNull Appendable out, @NotNull I18nKey key, Object... args) {
+        i18nMessagePack.formatTo(out, key, args);
+    }
+
+    @Override
+    public void formatTo(@NotNull Appendable out, @NotNull I18nKey key, @NotNull Map<String, Object> args) {
+        i18nMessagePack.formatTo(out, key, args);
+    }
+
+    @Override
+    public void writeUtf8(@NotNull OutputStream out, @NotNull I18nKey key, Object... args) {
+        i18nMessagePack.writeUtf8(out, key, args);
+    }
+
+    @Override
+    public void writeUtf8(@NotNull ByteBuffer out, @NotNull I18nKey key, Object... args) {
+        i18nMessagePack.writeUtf8(out, key, args);
+    }
+
     @Override
     @NotNull
     public String format(@NotNull Locale locale, @NotNull String template, Object... args) {
@@ -88,4 +159,57 @@ public final class Reloadable18nMessagePack implements I18nMessagePack {
     public String format(@NotNull Locale locale, @NotNull String template, @NotNull Map<String, Object> args) {
         return i18nMessagePack.format(locale, template, args);
     }
+
+    private final class ReloadableI18nMessageHandle implements I18nMessageHandle {
+        private final I18nPath path;
+        private volatile ResolvedHandle resolved;
+
+        ReloadableI18nMessageHandle(I18nPath path) {
+            this.path = path;
+        }
+
+        private I18nMessageHandle current() {
+            I18nMessagePack messagePack = i18nMessagePack;
+            ResolvedHandle resolved = this.resolved;
+            if (resolved == null || resolved.messagePack != messagePack) {
+                // handle is re-resolved lazily after each reload
+                resolved = new ResolvedHandle(messagePack, messagePack.handle(path));
+                this.resolved = resolved;
+            }
+            return resolved.handle;
+        }
+
+        @Override
+        public @NotNull I18nPath getPath() {
+            return path;
+        }
+
+        @Override
+        public @NotNull String getMessage(@NotNull Locale locale, Object... args) {
+            return current().getMessage(locale, args);
+        }
+
+        @Override
+        public @NotNull String getMessage(@NotNull Locale locale, @NotNull Map<String, Object> args) {
+            return current().getMessage(locale, args);
+        }
+
+        @Override
+        public @Nullable String getMessageOrNull(@NotNull Locale locale, Object... args) {
+            return current().getMessageOrNull(locale, args);
+        }
+
+        @Override
+        public @Nullable String getMessageOrNull(@NotNull Locale locale, @NotNull Map<String, Object> args) {
+            return current().getMessageOrNull(locale, args);
+        }
+
+        @Override
+        public String toString() {
+            return "I18nMessageHandle{" + path + '}';
+        }
+    }
+
+    private record ResolvedHandle(I18nMessagePack messagePack, I18nMessageHandle handle) {
+    }
 }
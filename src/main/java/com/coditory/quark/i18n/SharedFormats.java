@@ -0,0 +1,409 @@
+package com.coditory.quark.i18n;
+
+import com.coditory.quark.i18n.ArgumentIndexExtractor.ArgumentTypes;
+import com.ibm.icu.number.NumberFormatter;
+import com.ibm.icu.text.DateFormat;
+import com.ibm.icu.text.DecimalFormat;
+import com.ibm.icu.text.DecimalFormatSymbols;
+import com.ibm.icu.text.NumberFormat;
+import com.ibm.icu.text.SimpleDateFormat;
+import com.ibm.icu.util.Calendar;
+import com.ibm.icu.util.CurrencyAmount;
+import com.ibm.icu.util.GregorianCalendar;
+import com.ibm.icu.util.SimpleTimeZone;
+import com.ibm.icu.util.TimeZone;
+import com.ibm.icu.util.ULocale;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.text.FieldPosition;
+import java.text.Format;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Currency;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import static com.coditory.quark.i18n.Preconditions.expectNonNull;
+
+/**
+ * Pack-wide cache of argument formats like "{0,number}" or "{0,date,short}".
+ * Templates with the same (locale, type, style) share the same formats.
+ * Formats are created the same way as in ICU MessageFormat, so the output does not change.
+ * ICU formats are not thread-safe, so every shared format keeps a pool of instances per locale.
+ * <p>
+ * Java time values are passed to ICU date formats directly, without the argument transformer chain.
+ * ZonedDateTime is formatted in its own time zone.
+ * Money values passed to "{0,number,currency}" are formatted in the message locale with their own currency.
+ * Other typed arguments format only the money amount.
+ * Templates formatted by ICU MessageFormat get the same results via {@link #toIcuArguments}.
+ */
+final class SharedFormats {
+    private final ConcurrentHashMap<FormatKey, SharedFormat> formats = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ZoneId, TimeZone> timeZones = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<MoneyFormatKey, ObjectPool<NumberFormat>> moneyFormats = new ConcurrentHashMap<>();
+    private final SharedFormat stockNumberFormat = new SharedFormat(NumberFormat::getInstance, false);
+    private final SharedFormat stockDateFormat = new SharedFormat(
+            locale -> DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, locale), false);
+    private final boolean formatJavaTime;
+
+    SharedFormats(boolean formatJavaTime) {
+        this.formatJavaTime = formatJavaTime;
+    }
+
+    /**
+     * Returns true for values that are formatted with {@link #stockDateFormat()} when passed to an argument without a type.
+     */
+    boolean isDate(Object value) {
+        return value instanceof Date || (formatJavaTime && isJavaTime(value));
+    }
+
+    private static boolean isJavaTime(Object value) {
+        return value instanceof Instant
+                || value instanceof ZonedDateTime
+                || value instanceof LocalDateTime
+                || value instanceof LocalDate;
+    }
+
+    private static Date toDate(Object value) {
+        if (value instanceof Instant instant) {
+            return Date.from(instant);
+        }
+        if (value instanceof ZonedDateTime zonedDateTime) {
+            return Date.from(zonedDateTime.toInstant());
+        }
+        if (value instanceof LocalDateTime localDateTime) {
+            return Date.from(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
+        }
+        if (value instanceof LocalDate localDate) {
+            return Date.from(localDate.atTime(0, 0).atZone(ZoneId.systemDefault()).toInstant());
+        }
+        throw new IllegalArgumentException("Expected java time value. Got: " + value);
+    }
+
+    private TimeZone getTimeZone(ZoneId zoneId) {
+        TimeZone timeZone = timeZones.get(zoneId);
+        return timeZone != null
+                ? timeZone
+                : timeZones.computeIfAbsent(zoneId, SharedFormats::createTimeZone);
+    }
+
+    private static TimeZone createTimeZone(ZoneId zoneId) {
+        ZoneId normalized = zoneId.normalized();
+        if (normalized instanceof ZoneOffset offset) {
+            // exact offset, including seconds that are not supported by "GMT+hh:mm" ids
+            return new SimpleTimeZone(offset.getTotalSeconds() * 1000, offset.getId()).freeze();
+        }
+        TimeZone timeZone = TimeZone.getFrozenTimeZone(normalized.getId());
+        if (TimeZone.UNKNOWN_ZONE_ID.equals(timeZone.getID())) {
+            // region that is known to the JDK but not (yet) to ICU
+            timeZone = TimeZone.getTimeZone(normalized.getId(), TimeZone.TIMEZONE_JDK).freeze();
+        }
+        if (TimeZone.UNKNOWN_ZONE_ID.equals(timeZone.getID())) {
+            throw new IllegalArgumentException("Unsupported time zone: " + zoneId);
+        }
+        return timeZone;
+    }
+
+    /**
+     * Converts ZonedDateTime and Money arguments for ICU MessageFormat, so they are formatted like in native templates.
+     * Returns the same array if there is nothing to convert.
+     */
+    Object[] toIcuArguments(Locale locale, Object[] args, ArgumentTypes argumentTypes) {
+        Object[] result = args;
+        for (int i = 0; i < args.length; ++i) {
+            Object arg = args[i];
+            if (isConvertedForIcu(arg)) {
+                if (result == args) {
+                    result = args.clone();
+                }
+                String name = Integer.toString(i);
+                result[i] = toIcuArgument(locale, arg, name, argumentTypes);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converts ZonedDateTime and Money arguments for ICU MessageFormat, so they are formatted like in native templates.
+     * Returns the same map if there is nothing to convert.
+     */
+    Map<String, Object> toIcuArguments(Locale locale, Map<String, Object> args, ArgumentTypes argumentTypes) {
+        Map<String, Object> result = args;
+        for (Map.Entry<String, Object> entry : args.entrySet()) {
+            Object arg = entry.getValue();
+            if (isConvertedForIcu(arg)) {
+                if (result == args) {
+                    result = new HashMap<>(args);
+                }
+                String name = entry.getKey();
+                result.put(name, toIcuArgument(locale, arg, name, argumentTypes));
+            }
+        }
+        return result;
+    }
+
+    private boolean isConvertedForIcu(Object arg) {
+        return arg instanceof Money || (formatJavaTime && arg instanceof ZonedDateTime);
+    }
+
+    private Object toIcuArgument(Locale locale, Object arg, String name, ArgumentTypes argumentTypes) {
+        if (!(arg instanceof Money money)) {
+            return toIcuArgument(locale, (ZonedDateTime) arg, argumentTypes.untyped().contains(name));
+        }
+        if (argumentTypes.currency().contains(name)) {
+            return new MoneyAmount(money);
+        }
+        // like in native templates: amount for other types, toString() for "{0}"
+        return argumentTypes.typed().contains(name) ? money.amount() : money;
+    }
+
+    private Object toIcuArgument(Locale locale, ZonedDateTime value, boolean untyped) {
+        // ICU date formats use the time zone of the formatted calendar
+        TimeZone timeZone = getTimeZone(value.getZone());
+        ULocale uLocale = ULocale.forLocale(locale);
+        Calendar calendar = untyped
+                ? new FormattedCalendar(timeZone, uLocale, formatStockDate(locale, value))
+                : Calendar.getInstance(timeZone, uLocale);
+        calendar.setTimeInMillis(value.toInstant().toEpochMilli());
+        return calendar;
+    }
+
+    private String formatStockDate(Locale locale, ZonedDateTime value) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            stockDateFormat.formatTo(builder, locale, value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not format date", e);
+        }
+        return builder.toString();
+    }
+
+    private ObjectPool<NumberFormat> getMoneyFormatPool(Locale locale, Currency currency) {
+        MoneyFormatKey key = new MoneyFormatKey(locale, currency);
+        ObjectPool<NumberFormat> pool = moneyFormats.get(key);
+        return pool != null
+                ? pool
+                : moneyFormats.computeIfAbsent(key, SharedFormats::createMoneyFormatPool);
+    }
+
+    private static ObjectPool<NumberFormat> createMoneyFormatPool(MoneyFormatKey key) {
+        NumberFormat prototype = NumberFormat.getCurrencyInstance(ULocale.forLocale(key.locale()));
+        // sets currency symbol and fraction digits (like 0 for JPY)
+        prototype.setCurrency(com.ibm.icu.util.Currency.getInstance(key.currency().getCurrencyCode()));
+        return new ObjectPool<>(() -> (NumberFormat) prototype.clone());
+    }
+
+    /**
+     * Format used by ICU for numbers passed to an argument without a type.
+     */
+    SharedFormat stockNumberFormat() {
+        return stockNumberFormat;
+    }
+
+    /**
+     * Format used by ICU for dates passed to an argument without a type.
+     */
+    SharedFormat stockDateFormat() {
+        return stockDateFormat;
+    }
+
+    /**
+     * Returns null for argument types not supported by the cache (like "spellout").
+     */
+    @Nullable
+    SharedFormat getFormat(String type, String style) {
+        expectNonNull(type, "type");
+        expectNonNull(style, "style");
+        FormatKey key = new FormatKey(type, style);
+        SharedFormat format = formats.get(key);
+        if (format != null) {
+            return format;
+        }
+        Function<ULocale, Format> creator = formatCreator(type, style);
+        boolean currency = keyword(type).equals("number") && keyword(style).equals("currency");
+        if (creator == null) {
+            return null;
+        }
+        // invalid styles are reported when the template is parsed, like in ICU MessageFormat
+        creator.apply(ULocale.ROOT);
+        return formats.computeIfAbsent(key, k -> new SharedFormat(creator, currency));
+    }
+
+    @Nullable
+    private static Function<ULocale, Format> formatCreator(String type, String style) {
+        return switch (keyword(type)) {
+            case "number" -> numberFormatCreator(style);
+            case "date" -> dateFormatCreator(style, DateFormat::getDateInstance);
+            case "time" -> dateFormatCreator(style, DateFormat::getTimeInstance);
+            default -> null;
+        };
+    }
+
+    private static Function<ULocale, Format> numberFormatCreator(String style) {
+        return switch (keyword(style)) {
+            case "" -> NumberFormat::getInstance;
+            case "currency" -> NumberFormat::getCurrencyInstance;
+            case "percent" -> NumberFormat::getPercentInstance;
+            case "integer" -> NumberFormat::getIntegerInstance;
+            default -> style.startsWith("::")
+                    ? locale -> NumberFormatter.forSkeleton(style.substring(2)).locale(locale).toFormat()
+                    : locale -> new DecimalFormat(style, new DecimalFormatSymbols(locale));
+        };
+    }
+
+    private static Function<ULocale, Format> dateFormatCreator(String style, BiFunction<Integer, ULocale, DateFormat> factory) {
+        return switch (keyword(style)) {
+            case "" -> locale -> factory.apply(DateFormat.DEFAULT, locale);
+            case "short" -> locale -> factory.apply(DateFormat.SHORT, locale);
+            case "medium" -> locale -> factory.apply(DateFormat.MEDIUM, locale);
+            case "long" -> locale -> factory.apply(DateFormat.LONG, locale);
+            case "full" -> locale -> factory.apply(DateFormat.FULL, locale);
+            default -> style.startsWith("::")
+                    ? locale -> DateFormat.getInstanceForSkeleton(style.substring(2), locale)
+                    : locale -> new SimpleDateFormat(style, locale);
+        };
+    }
+
+    private static String keyword(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record FormatKey(String type, String style) {
+    }
+
+    /**
+     * ICU MessageFormat formats currency amounts passed to "{0}" with toString(),
+     * so the amount is formatted like the money value in native templates.
+     */
+    private static final class MoneyAmount extends CurrencyAmount {
+        private final Money money;
+
+        MoneyAmount(Money money) {
+            super(money.amount(), com.ibm.icu.util.Currency.getInstance(money.currency().getCurrencyCode()));
+            this.money = money;
+        }
+
+        @Override
+        public String toString() {
+            return money.toString();
+        }
+    }
+
+    /**
+     * ICU MessageFormat formats calendars passed to "{0}" with toString(),
+     * so the calendar carries its value formatted with the stock date format.
+     * Date formats ("{0,date}") use the time and the time zone of the calendar.
+     */
+    private static final class FormattedCalendar extends GregorianCalendar {
+        private static final long serialVersionUID = 1L;
+        private final String formatted;
+
+        FormattedCalendar(TimeZone timeZone, ULocale locale, String formatted) {
+            super(timeZone, locale);
+            this.formatted = formatted;
+        }
+
+        @Override
+        public String toString() {
+            return formatted;
+        }
+    }
+
+    private record MoneyFormatKey(Locale locale, Currency currency) {
+    }
+
+    final class SharedFormat {
+        private final ConcurrentHashMap<Locale, ObjectPool<Format>> pools = new ConcurrentHashMap<>();
+        private final Function<ULocale, Format> creator;
+        private final boolean currency;
+
+        private SharedFormat(Function<ULocale, Format> creator, boolean currency) {
+            this.creator = creator;
+            this.currency = currency;
+        }
+
+        void formatTo(Appendable out, Locale locale, Object arg) throws IOException {
+            if (arg instanceof Money money) {
+                if (currency) {
+                    formatTo(out, locale, money);
+                } else {
+                    formatTo(out, locale, money.amount());
+                }
+                return;
+            }
+            ObjectPool<Format> pool = getPool(locale);
+            Format format = pool.acquire();
+            try {
+                if (!formatJavaTime || !isJavaTime(arg)) {
+                    formatTo(out, format, arg);
+                } else if (arg instanceof ZonedDateTime zonedDateTime && format instanceof DateFormat dateFormat) {
+                    formatTo(out, dateFormat, zonedDateTime);
+                } else {
+                    formatTo(out, format, toDate(arg));
+                }
+            } finally {
+                pool.release(format);
+            }
+        }
+
+        private void formatTo(Appendable out, Locale locale, Money money) throws IOException {
+            ObjectPool<NumberFormat> pool = getMoneyFormatPool(locale, money.currency());
+            NumberFormat format = pool.acquire();
+            try {
+                formatTo(out, format, money.amount());
+            } finally {
+                pool.release(format);
+            }
+        }
+
+        private void formatTo(Appendable out, DateFormat format, ZonedDateTime value) throws IOException {
+            TimeZone timeZone = format.getTimeZone();
+            format.setTimeZone(getTimeZone(value.getZone()));
+            try {
+                formatTo(out, format, toDate(value));
+            } finally {
+                format.setTimeZone(timeZone);
+            }
+        }
+
+        private void formatTo(Appendable out, Format format, Object arg) throws IOException {
+            if (out instanceof StringBuffer buffer) {
+                format.format(arg, buffer, new FieldPosition(0));
+            } else {
+                out.append(format.format(arg));
+            }
+        }
+
+        void warmUp(Locale locale) {
+            ObjectPool<Format> pool = getPool(locale);
+            pool.release(pool.acquire());
+        }
+
+        boolean isWarmedUp(Locale locale) {
+            ObjectPool<Format> pool = pools.get(locale);
+            return pool != null && pool.idleCount() > 0;
+        }
+
+        private ObjectPool<Format> getPool(Locale locale) {
+            ObjectPool<Format> pool = pools.get(locale);
+            return pool != null
+                    ? pool
+                    : pools.computeIfAbsent(locale, this::createPool);
+        }
+
+        private ObjectPool<Format> createPool(Locale locale) {
+            Format prototype = creator.apply(ULocale.forLocale(locale));
+            return new ObjectPool<>(() -> (Format) prototype.clone());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.coditory.quark.i18n
 
+import com.ibm.icu.text.MessagePattern
 import spock.lang.Specification
 import spock.lang.Unroll
 
@@ -9,37 +10,47 @@ class ArgumentIndexExtractorSpec extends Specification {
     @Unroll
     def "should extract argument indexes from: #template"() {
         when:
-            List<Integer> indexes = extractArgumentIndexes(template).toList()
-            indexes.sort()
+            BitSet indexes = extractArgumentIndexes(new MessagePattern(template))
         then:
-            indexes == expected
+            indexes.stream().toArray().toList() == expected
         where:
-            template             || expected
-            "{0}"                || [0]
-            "{0,number,integer}" || [0]
-            "{ 0 , number }"     || [0]
-            "{ 10 , number }"    || [10]
-            "{ 0 } {10}"         || [0, 10]
-            "'{abc '{0}}"        || [0]
-            "'{abc {'{0}} }"     || [0]
+            template                                    || expected
+            "{0}"                                       || [0]
+            "{0,number,integer}"                        || [0]
+            "{ 0 , number }"                            || [0]
+            "{ 10 , number }"                           || [10]
+            "{ 0 } {10}"                                || [0, 10]
+            "{ 1 } {0,number}"                          || [0, 1]
+            "'{abc '{0}}"                               || [0]
+            "'{abc {'{0}} }"                            || [0]
+            "{0,plural,one{{1} item} other{{2} items}}" || [0, 1, 2]
     }
 
     @Unroll
     def "should extract no argument indexes from: #template"() {
         when:
-            List<Integer> indexes = extractArgumentIndexes(template).toList()
+            BitSet indexes = extractArgumentIndexes(new MessagePattern(template))
         then:
-            indexes == []
+            indexes.isEmpty()
         where:
             template << [
                     "",
                     "0",
+                    "abc",
+                    "'{0}'",
                     "{named}",
                     "{0named}",
-                    "{0 named}",
                     "'{0}",
                     "'{abc {0}}",
                     "'{abc {} { {0}} {}}"
             ]
     }
+
+    def "should extract argument names from parsed template"() {
+        when:
+            Set<String> names = ArgumentIndexExtractor.extractArgumentNames(
+                    new MessagePattern("{count,plural,one{{name} item} other{{name} items}}"))
+        then:
+            names == ["count", "name"] as Set
+    }
 }
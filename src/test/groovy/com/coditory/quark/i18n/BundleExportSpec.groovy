@@ -0,0 +1,98 @@
+package com.coditory.quark.i18n
+
+import com.coditory.quark.i18n.loader.I18nLoader
+import com.coditory.quark.i18n.loader.I18nMessageBundle
+import spock.lang.Specification
+
+import java.util.zip.GZIPInputStream
+
+import static com.coditory.quark.i18n.Locales.EN
+import static com.coditory.quark.i18n.Locales.EN_US
+import static com.coditory.quark.i18n.Locales.PL_PL
+
+class BundleExportSpec extends Specification {
+    I18nMessagePack messagePack = I18nMessagePack.builder()
+            .addMessage(EN_US, "web.title", "Hello <b>{0}</b>")
+            .addMessage(EN, "web.footer", "\$company by {0}")
+            .addMessage(EN, "web.nav.home", "Home")
+            .addMessage(EN, "company", "ACME")
+            .addMessage(EN, "api.error", "Error")
+            .addMessage(PL_PL, "web.title", "Witaj {0}")
+            .setDefaultLocale(EN)
+            .build()
+
+    def "should export effective templates under prefix"() {
+        when:
+            I18nBundleExport export = messagePack.exportBundle(EN_US, "web")
+        then:
+            export.getJson() == '{"footer":"ACME by {0}","nav.home":"Home","title":"Hello <b>{0}</b>"}'
+            export.size() == 3
+            export.getLocale() == EN_US
+            export.getPrefix() == I18nPath.of("web")
+    }
+
+    def "should export templates with fallback locale"() {
+        when:
+            I18nBundleExport export = messagePack.exportBundle(PL_PL, "web")
+        then:
+            export.getJson() == '{"footer":"ACME by {0}","nav.home":"Home","title":"Witaj {0}"}'
+    }
+
+    def "should not export paths resolved by message fallback paths"() {
+        given:
+            I18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addMessage(EN, "glossary.ok", "OK")
+                    .addMessage(PL_PL, "glossary.cancel", "Anuluj")
+                    .addMessage(EN, "glossary.cancel", "Cancel")
+                    .addMessageFallbackKeyPrefix("glossary")
+                    .setDefaultLocale(EN)
+                    .build()
+        expect:
+            messagePack.getMessage(PL_PL, "ok") == "OK"
+        and:
+            messagePack.exportBundle(PL_PL, I18nPath.root()).getJson() == '{"glossary.cancel":"Anuluj","glossary.ok":"OK"}'
+            messagePack.exportBundle(EN, "glossary").getJson() == '{"cancel":"Cancel","ok":"OK"}'
+    }
+
+    def "should cache exported bundle and compute etag from content"() {
+        when:
+            I18nBundleExport first = messagePack.exportBundle(EN_US, "web")
+            I18nBundleExport second = messagePack.exportBundle(EN_US, I18nPath.of("web"))
+            I18nBundleExport polish = messagePack.exportBundle(PL_PL, "web")
+        then:
+            first.is(second)
+            first.getEtag() ==~ /"[0-9a-f]{32}"/
+            first.getEtag() != polish.getEtag()
+    }
+
+    def "should write json and gzipped json"() {
+        given:
+            I18nBundleExport export = messagePack.exportBundle(EN_US, "web.nav")
+            ByteArrayOutputStream json = new ByteArrayOutputStream()
+            ByteArrayOutputStream gzipped = new ByteArrayOutputStream()
+        when:
+            export.writeTo(json)
+            export.writeGzippedTo(gzipped)
+        then:
+            json.toString("UTF-8") == '{"home":"Home"}'
+            new GZIPInputStream(new ByteArrayInputStream(gzipped.toByteArray())).text == '{"home":"Home"}'
+            export.asByteBuffer().remaining() == json.size()
+    }
+
+    def "should rebuild exported bundle on reload"() {
+        given:
+            Map<I18nKey, String> entries = [(I18nKey.of(EN, "web.title")): "first"]
+            I18nLoader loader = { -> [new I18nMessageBundle(entries)] }
+            Reloadable18nMessagePack reloadable = I18nMessagePack.builder()
+                    .addLoader(loader)
+                    .buildReloadable()
+            I18nBundleExport first = reloadable.exportBundle(EN, "web")
+        when:
+            entries[I18nKey.of(EN, "web.title")] = "second"
+            reloadable.reload()
+        then:
+            I18nBundleExport second = reloadable.exportBundle(EN, "web")
+            second.getJson() == '{"title":"second"}'
+            second.getEtag() != first.getEtag()
+    }
+}
@@ -0,0 +1,101 @@
+package com.coditory.quark.i18n
+
+import spock.lang.Specification
+
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
+import static com.coditory.quark.i18n.Locales.DE_DE
+import static com.coditory.quark.i18n.Locales.EN_US
+import static com.coditory.quark.i18n.Locales.PL_PL
+
+class ConcurrentResolutionSpec extends Specification {
+    static final int THREADS = 64
+    static final int ITERATIONS = 2_000
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS)
+
+    void cleanup() {
+        executor.shutdownNow()
+    }
+
+    def "should resolve the same template from many threads"() {
+        given:
+            I18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addMessage(EN_US, "msg", "{0} has {1,number} {1,plural,one{item} other{items}} for {2,number,currency}")
+                    .addMessage(PL_PL, "msg", "{0} ma {1,number} {1,plural,one{rzecz} few{rzeczy} other{rzeczy}} za {2,number,currency}")
+                    .addMessage(DE_DE, "msg", "{0} hat {1,number} {1,plural,one{Sache} other{Sachen}} für {2,number,currency}")
+                    .build()
+            List<Locale> locales = [EN_US, PL_PL, DE_DE]
+            Map<String, String> expected = [:]
+            for (Locale locale : locales) {
+                for (int i = 0; i < 10; ++i) {
+                    expected[locale.toLanguageTag() + i] = messagePack.getMessage(locale, "msg", "user" + i, i * 1000, i * 1.5)
+                }
+            }
+        when:
+            List<Future<List<String>>> futures = (0..<THREADS).collect { int thread ->
+                executor.submit({
+                    List<String> errors = []
+                    for (int i = 0; i < ITERATIONS; ++i) {
+                        Locale locale = locales[(thread + i) % locales.size()]
+                        int n = i % 10
+                        String result = messagePack.getMessage(locale, "msg", "user" + n, n * 1000, n * 1.5)
+                        String expectedResult = expected[locale.toLanguageTag() + n]
+                        if (result != expectedResult) {
+                            errors.add("Expected: " + expectedResult + ", got: " + result)
+                        }
+                    }
+                    return errors
+                } as Callable<List<String>>)
+            }
+        then:
+            futures.collectMany { it.get() } == []
+    }
+
+    def "should publish one format slot per locale on concurrent first use"() {
+        given:
+            MessageTemplate template = MessageTemplate.parse(
+                    "{0,plural,one{# item} other{# items}}", ArgumentResolver.of([], []), new SharedFormats(true))
+            List<Locale> locales = [EN_US, PL_PL, DE_DE, Locale.FRANCE]
+            CountDownLatch start = new CountDownLatch(1)
+        when:
+            List<Future<String>> futures = (0..<THREADS).collect { int thread ->
+                executor.submit({
+                    start.await()
+                    return template.resolve(locales[thread % locales.size()], [2] as Object[])
+                } as Callable<String>)
+            }
+            start.countDown()
+            futures.each { it.get() }
+        then:
+            List formats = template.@formats as List
+            formats.collect { it.locale() } as Set == locales as Set
+            formats.size() == locales.size()
+        and:
+            formats.every { it.pool().@slots.length() == 2 }
+    }
+
+    def "should reuse pooled instances"() {
+        given:
+            int created = 0
+            ObjectPool<Object> pool = new ObjectPool<>({ new Object().tap { created++ } }, 2)
+        when:
+            Object first = pool.acquire()
+            Object second = pool.acquire()
+            pool.release(first)
+            pool.release(second)
+            pool.release(new Object())
+        then:
+            created == 2
+        and:
+            [pool.acquire(), pool.acquire()] as Set == [first, second] as Set
+            created == 2
+        and:
+            pool.acquire() != null
+            created == 3
+    }
+}
@@ -0,0 +1,113 @@
+package com.coditory.quark.i18n
+
+import org.jetbrains.annotations.NotNull
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.text.MessageFormat
+
+import static com.coditory.quark.i18n.Locales.EN
+import static java.nio.charset.StandardCharsets.UTF_8
+
+class CustomMessagePackSpec extends Specification {
+    I18nMessagePack messagePack = new MapMessagePack([
+            (I18nKey.of(EN, "hello")): "Hello {0}",
+            (I18nKey.of(EN, "bye"))  : "Bye {0}",
+    ])
+
+    def "should resolve batches with default methods"() {
+        expect:
+            messagePack.resolveAll(EN, [I18nPath.of("hello"), I18nPath.of("bye")], "John") ==
+                    [(I18nPath.of("hello")): "Hello John", (I18nPath.of("bye")): "Bye John"]
+            messagePack.formatAll(I18nKey.of(EN, "hello"), [["A"] as Object[], ["B"] as Object[]]) == ["Hello A", "Hello B"]
+            messagePack.formatAllParallel(I18nKey.of(EN, "hello"), [["A"] as Object[], ["B"] as Object[]]) == ["Hello A", "Hello B"]
+            messagePack.formatAll(I18nKey.of(EN, "bye"), [["A"] as Object[]].stream()).toList() == ["Bye A"]
+    }
+
+    def "should write messages with default methods"() {
+        given:
+            StringBuilder builder = new StringBuilder()
+            ByteArrayOutputStream stream = new ByteArrayOutputStream()
+            ByteBuffer buffer = ByteBuffer.allocate(64)
+        when:
+            messagePack.formatTo(builder, EN, "hello", "John")
+            messagePack.writeUtf8(stream, EN, "hello", "Józef")
+            messagePack.writeUtf8(buffer, EN, "bye", "John")
+        then:
+            builder.toString() == "Hello John"
+            stream.toString(UTF_8) == "Hello Józef"
+            new String(buffer.array(), 0, buffer.position(), UTF_8) == "Bye John"
+    }
+
+    def "should resolve handles with default methods"() {
+        when:
+            I18nMessageHandle handle = messagePack.handle("hello")
+        then:
+            handle.getPath() == I18nPath.of("hello")
+            handle.getMessage(EN, "John") == "Hello John"
+            handle.getMessageOrNull(Locale.GERMAN, "John") == null
+    }
+
+    def "should report unsupported operations with default methods"() {
+        expect:
+            messagePack.getWarmUpReports() == [:]
+            messagePack.getTemplateCacheStats() == new I18nTemplateCacheStats(0, 0, 0, 0)
+        when:
+            messagePack.exportBundle(EN, "hello")
+        then:
+            thrown(UnsupportedOperationException)
+    }
+
+    static class MapMessagePack implements I18nMessagePack {
+        private final Map<I18nKey, String> messages
+
+        MapMessagePack(Map<I18nKey, String> messages) {
+            this.messages = messages
+        }
+
+        @Override
+        String getMessage(@NotNull I18nKey key, Object... args) {
+            String message = getMessageOrNull(key, args)
+            if (message == null) {
+                throw new I18nMessagesException("Missing message: " + key)
+            }
+            return message
+        }
+
+        @Override
+        String getMessage(@NotNull I18nKey key, Map<String, Object> args) {
+            throw new UnsupportedOperationException()
+        }
+
+        @Override
+        String getMessageOrNull(@NotNull I18nKey key, Object... args) {
+            String template = messages.get(key)
+            return template != null ? MessageFormat.format(template, args) : null
+        }
+
+        @Override
+        String getMessageOrNull(@NotNull I18nKey key, Map<String, Object> args) {
+            throw new UnsupportedOperationException()
+        }
+
+        @Override
+        String format(@NotNull Locale locale, @NotNull String template, Object... args) {
+            return MessageFormat.format(template, args)
+        }
+
+        @Override
+        String format(@NotNull Locale locale, @NotNull String template, @NotNull Map<String, Object> args) {
+            throw new UnsupportedOperationException()
+        }
+
+        @Override
+        I18nMessages localize(@NotNull Locale locale) {
+            throw new UnsupportedOperationException()
+        }
+
+        @Override
+        I18nMessagePack prefixQueries(I18nPath prefix) {
+            throw new UnsupportedOperationException()
+        }
+    }
+}
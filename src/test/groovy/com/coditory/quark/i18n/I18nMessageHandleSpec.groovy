@@ -0,0 +1,77 @@
+package com.coditory.quark.i18n
+
+import com.coditory.quark.i18n.loader.I18nLoader
+import com.coditory.quark.i18n.loader.I18nMessageBundle
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static com.coditory.quark.i18n.Locales.EN
+import static com.coditory.quark.i18n.Locales.EN_US
+import static com.coditory.quark.i18n.Locales.PL
+import static com.coditory.quark.i18n.Locales.PL_PL
+
+class I18nMessageHandleSpec extends Specification {
+    @Unroll
+    def "should resolve message through a handle using fallback locales (#locale)"() {
+        given:
+            I18nMessageHandle handle = I18nMessagePack.builder()
+                    .addMessage(EN_US, "msg", "en-US:{0}")
+                    .addMessage(EN, "msg", "en:{0}")
+                    .addMessage(PL, "msg", "pl:{0}")
+                    .setDefaultLocale(PL_PL)
+                    .build()
+                    .handle("msg")
+        expect:
+            handle.getMessage(locale, "X") == expected
+        where:
+            locale                         || expected
+            EN_US                          || "en-US:X"
+            EN                             || "en:X"
+            Locale.forLanguageTag("en-XX") || "en:X"
+            PL_PL                          || "pl:X"
+            Locale.forLanguageTag("de-DE") || "pl:X"
+    }
+
+    def "should resolve message through a handle using query prefix"() {
+        given:
+            I18nMessageHandle handle = I18nMessagePack.builder()
+                    .addMessage(EN, "msg", "en:msg")
+                    .addMessage(EN, "x.msg", "en:x.msg")
+                    .build()
+                    .prefixQueries("x")
+                    .handle("msg")
+        expect:
+            handle.getMessage(EN) == "en:x.msg"
+    }
+
+    def "should handle missing message through a handle"() {
+        given:
+            I18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addMessage(EN, "msg", "en:msg")
+                    .build()
+        when:
+            messagePack.handle("other").getMessage(EN)
+        then:
+            I18nMessagesException e = thrown(I18nMessagesException)
+            e.message == "Missing message en:other"
+        and:
+            messagePack.handle("msg").getMessageOrNull(PL) == null
+    }
+
+    def "should keep handle valid after reload"() {
+        given:
+            Map<I18nKey, String> entries = [(I18nKey.of(EN, "msg")): "first"]
+            I18nLoader loader = { -> [new I18nMessageBundle(entries)] }
+            Reloadable18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addLoader(loader)
+                    .buildReloadable()
+            I18nMessageHandle handle = messagePack.handle("msg")
+        expect:
+            handle.getMessage(EN) == "first"
+        when:
+            entries[I18nKey.of(EN, "msg")] = "second"
+            messagePack.reload()
+        then:
+            handle.getMessage(EN) == "second"
+    }
+}
@@ -3,6 +3,8 @@ package com.coditory.quark.i18n
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.lang.ref.Reference
+
 class I18nPathSpec extends Specification {
     @Unroll
     def "should parse I18nPath: #value"() {
@@ -52,4 +54,39 @@ class I18nPathSpec extends Specification {
             I18nPath.root()            | "x"   || I18nPath.of("x")
             I18nPath.root()            | ""    || I18nPath.root()
     }
-}
\ No newline at end of file
+
+    def "should intern equal paths"() {
+        expect:
+            I18nPath.of("a.b.c").is(I18nPath.of("a", "b", "c"))
+            I18nPath.of("a.b").child("c").is(I18nPath.of("a.b.c"))
+            I18nPath.of("a.b.c").parentOrRoot().is(I18nPath.of("a.b"))
+    }
+
+    def "should not intern validated paths"() {
+        when:
+            I18nPath.validate("validated-only.path")
+        then:
+            !I18nPath.root().@children.containsKey("validated-only")
+    }
+
+    def "should skip empty segments"() {
+        expect:
+            I18nPath.of("").is(I18nPath.root())
+            I18nPath.of([""] as String[]).is(I18nPath.root())
+            I18nPath.of([""]).is(I18nPath.root())
+            I18nPath.of("a", "", "b").is(I18nPath.of("a.b"))
+    }
+
+    def "should release unused paths"() {
+        given:
+            I18nPath parent = I18nPath.of("unused")
+            I18nPath.of("unused", "path")
+            Reference<I18nPath> reference = parent.@children.get("path")
+        when:
+            reference.enqueue()
+            I18nPath.of("unused", "other")
+        then:
+            !parent.@children.containsKey("path")
+            parent.@children.containsKey("other")
+    }
+}
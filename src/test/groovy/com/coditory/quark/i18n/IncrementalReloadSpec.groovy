@@ -0,0 +1,100 @@
+package com.coditory.quark.i18n
+
+import com.coditory.quark.i18n.loader.I18nLoader
+import com.coditory.quark.i18n.loader.I18nMessageBundle
+import spock.lang.Specification
+
+import static com.coditory.quark.i18n.Locales.EN
+import static com.coditory.quark.i18n.Locales.PL
+
+class IncrementalReloadSpec extends Specification {
+    Map<I18nKey, String> entries = [
+            (I18nKey.of(EN, "common.company")): "ACME",
+            (I18nKey.of(EN, "common.footer")) : "Powered by \$common.company",
+            (I18nKey.of(EN, "page.footer"))   : "{0} - \$common.footer",
+            (I18nKey.of(PL, "page.footer"))   : "{0} - \$common.footer",
+            (I18nKey.of(EN, "page.title"))    : "Hello {0}",
+    ]
+    I18nLoader loader = { -> [new I18nMessageBundle(new HashMap<>(entries))] }
+
+    def "should recompile changed template and its transitive dependents"() {
+        given:
+            Reloadable18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addLoader(loader)
+                    .setDefaultLocale(EN)
+                    .buildReloadable()
+            Map<I18nKey, MessageTemplate> before = compiledTemplates(messagePack)
+        when:
+            entries[I18nKey.of(EN, "common.company")] = "Coditory"
+            messagePack.reload()
+        then:
+            messagePack.getMessage(EN, "page.footer", "Home") == "Home - Powered by Coditory"
+            messagePack.getMessage(PL, "page.footer", "Dom") == "Dom - Powered by Coditory"
+        and:
+            Map<I18nKey, MessageTemplate> after = compiledTemplates(messagePack)
+            after[I18nKey.of(EN, "page.title")].is(before[I18nKey.of(EN, "page.title")])
+            !after[I18nKey.of(EN, "common.company")].is(before[I18nKey.of(EN, "common.company")])
+            !after[I18nKey.of(EN, "common.footer")].is(before[I18nKey.of(EN, "common.footer")])
+            !after[I18nKey.of(EN, "page.footer")].is(before[I18nKey.of(EN, "page.footer")])
+            !after[I18nKey.of(PL, "page.footer")].is(before[I18nKey.of(PL, "page.footer")])
+    }
+
+    def "should keep tracking dependencies of reused templates"() {
+        given:
+            Reloadable18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addLoader(loader)
+                    .setDefaultLocale(EN)
+                    .buildReloadable()
+        when:
+            entries[I18nKey.of(EN, "page.title")] = "Hi {0}"
+            messagePack.reload()
+            entries[I18nKey.of(EN, "common.company")] = "Coditory"
+            messagePack.reload()
+        then:
+            messagePack.getMessage(EN, "page.title", "John") == "Hi John"
+            messagePack.getMessage(EN, "page.footer", "Home") == "Home - Powered by Coditory"
+    }
+
+    def "should share formats with reused templates"() {
+        given:
+            Reloadable18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addLoader(loader)
+                    .setDefaultLocale(EN)
+                    .buildReloadable()
+            MessageTemplateParser before = parser(messagePack)
+        when:
+            entries[I18nKey.of(EN, "common.company")] = "Coditory"
+            messagePack.reload()
+        then:
+            MessageTemplateParser after = parser(messagePack)
+            !after.is(before)
+            after.getSharedFormats().is(before.getSharedFormats())
+            after.getArgumentResolver().is(before.getArgumentResolver())
+    }
+
+    def "should recompile all templates when messages are added"() {
+        given:
+            Reloadable18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addLoader(loader)
+                    .setDefaultLocale(EN)
+                    .buildReloadable()
+            Map<I18nKey, MessageTemplate> before = compiledTemplates(messagePack)
+        when:
+            entries[I18nKey.of(PL, "common.footer")] = "Dostarczone przez \$common.company"
+            messagePack.reload()
+        then:
+            messagePack.getMessage(PL, "page.footer", "Dom") == "Dom - Dostarczone przez ACME"
+            messagePack.getMessage(EN, "page.footer", "Home") == "Home - Powered by ACME"
+            !compiledTemplates(messagePack)[I18nKey.of(EN, "page.title")].is(before[I18nKey.of(EN, "page.title")])
+    }
+
+    private static MessageTemplateParser parser(Reloadable18nMessagePack messagePack) {
+        ImmutableI18nMessagePack pack = messagePack.@i18nMessagePack as ImmutableI18nMessagePack
+        return pack.getParser()
+    }
+
+    private static Map<I18nKey, MessageTemplate> compiledTemplates(Reloadable18nMessagePack messagePack) {
+        ImmutableI18nMessagePack pack = messagePack.@i18nMessagePack as ImmutableI18nMessagePack
+        return pack.getDefinedTemplates().collectEntries { [(it.key()): it.template()] }
+    }
+}
@@ -0,0 +1,124 @@
+package com.coditory.quark.i18n
+
+import spock.lang.Specification
+
+import java.util.concurrent.Executor
+
+import static com.coditory.quark.i18n.Locales.EN
+import static com.coditory.quark.i18n.Locales.PL
+
+class LazyCompilationSpec extends Specification {
+    I18nMessagePackBuilder builder = I18nMessagePack.builder()
+            .addMessage(EN, "company", "ACME")
+            .addMessage(EN, "hello", "Hello {0} from \$company")
+            .addMessage(PL, "items", "{0,plural,one{# rzecz} few{# rzeczy} other{# rzeczy}}")
+            .addMessage(EN, "invalid", "Hello {0")
+            .setDefaultLocale(EN)
+
+    def "should not report invalid templates when the pack is built"() {
+        when:
+            I18nMessagePack messagePack = builder
+                    .compileTemplatesLazily()
+                    .build()
+        then:
+            messagePack.getMessage(EN, "hello", "John") == "Hello John from ACME"
+            messagePack.getMessage(PL, "items", 3) == "3 rzeczy"
+    }
+
+    def "should compile template on first use"() {
+        given:
+            ImmutableI18nMessagePack messagePack = builder
+                    .compileTemplatesLazily()
+                    .build() as ImmutableI18nMessagePack
+        expect:
+            !definedTemplate(messagePack, EN, "hello").isCompiled()
+            !definedTemplate(messagePack, PL, "items").isCompiled()
+
+        when:
+            String message = messagePack.getMessage(EN, "hello", "John")
+        then:
+            message == "Hello John from ACME"
+            definedTemplate(messagePack, EN, "hello").isCompiled()
+            !definedTemplate(messagePack, PL, "items").isCompiled()
+    }
+
+    def "should report missing references when the pack is built"() {
+        when:
+            builder.addMessage(EN, "broken", "Hello \$missing")
+                    .compileTemplatesLazily()
+                    .build()
+        then:
+            I18nMessagesException e = thrown(I18nMessagesException)
+            e.message == "Missing reference: missing"
+    }
+
+    def "should export lazy templates without compiling them"() {
+        given:
+            ImmutableI18nMessagePack messagePack = builder
+                    .compileTemplatesLazily()
+                    .build() as ImmutableI18nMessagePack
+        when:
+            I18nBundleExport export = messagePack.exportBundle(EN, I18nPath.root())
+        then:
+            export.getJson() == '{"company":"ACME","hello":"Hello {0} from ACME","invalid":"Hello {0"}'
+            !definedTemplate(messagePack, EN, "hello").isCompiled()
+    }
+
+    def "should report invalid template when it is resolved"() {
+        given:
+            I18nMessagePack messagePack = builder
+                    .compileTemplatesLazily()
+                    .build()
+        when:
+            messagePack.getMessage(EN, "invalid", "John")
+        then:
+            IllegalArgumentException e = thrown(IllegalArgumentException)
+            e.message == "Could not compile message en:invalid=\"Hello {0\""
+    }
+
+    def "should not compile invalid template again"() {
+        given:
+            I18nMessagePack messagePack = builder
+                    .compileTemplatesLazily()
+                    .build()
+        when:
+            messagePack.getMessage(EN, "invalid", "John")
+        then:
+            IllegalArgumentException first = thrown(IllegalArgumentException)
+
+        when:
+            messagePack.getMessage(EN, "invalid", "John")
+        then:
+            IllegalArgumentException second = thrown(IllegalArgumentException)
+            second.message == first.message
+            second.cause.is(first.cause)
+    }
+
+    def "should compile templates in the background"() {
+        given:
+            List<Runnable> tasks = []
+            Executor executor = { Runnable task -> tasks.add(task) } as Executor
+            ImmutableI18nMessagePack messagePack = builder
+                    .compileTemplatesLazily(executor)
+                    .build() as ImmutableI18nMessagePack
+        expect:
+            tasks.size() == 1
+            messagePack.getDefinedTemplates().every { !it.isCompiled() }
+
+        when:
+            tasks.each { it.run() }
+        then:
+            messagePack.getDefinedTemplates().findAll { !it.isCompiled() }*.key() == [I18nKey.of(EN, "invalid")]
+    }
+
+    def "should report invalid templates when the pack is built eagerly"() {
+        when:
+            builder.build()
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    private static LocalizedMessageTemplate definedTemplate(ImmutableI18nMessagePack messagePack, Locale locale, String path) {
+        return messagePack.getDefinedTemplates().find { it.key() == I18nKey.of(locale, path) }
+    }
+}
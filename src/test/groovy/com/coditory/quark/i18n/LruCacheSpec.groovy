@@ -80,4 +80,25 @@ class LruCacheSpec extends Specification {
             cache.get("c") == "C"
             cache.get("d") == "D"
     }
+
+    def "should keep eviction order after many reads"() {
+        given:
+            LruCache<String, String> cache = new LruCache<>(3)
+        and:
+            cache.put("a", "A")
+            cache.put("b", "B")
+            cache.put("c", "C")
+        when:
+            cache.get("a")
+            cache.put("d", "D")
+            cache.get("c")
+            cache.put("e", "E")
+        then:
+            cache.get("a") == null
+            cache.get("b") == null
+            cache.get("c") == "C"
+            cache.get("d") == "D"
+            cache.get("e") == "E"
+            cache.size() == 3
+    }
 }
@@ -45,6 +45,8 @@ class MessageHierarchySpec extends Specification {
             EN_US                          | "d"  || "pl:d"
             EN                             | "a"  || "en:a"
             Locale.forLanguageTag("en-XX") | "a"  || "en:a"
+            Locale.forLanguageTag("de-DE") | "a"  || "pl-PL:a"
+            Locale.forLanguageTag("de-DE") | "d"  || "pl:d"
     }
 
     @Unroll
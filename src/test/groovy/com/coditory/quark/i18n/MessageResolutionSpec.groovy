@@ -3,9 +3,12 @@ package com.coditory.quark.i18n
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import java.nio.ByteBuffer
+
 import static com.coditory.quark.i18n.Locales.EN_US
 import static com.coditory.quark.i18n.Locales.PL
 import static com.coditory.quark.i18n.Locales.PL_PL
+import static java.nio.charset.StandardCharsets.UTF_8
 
 class MessageResolutionSpec extends Specification {
     def "should return message with two indexed arguments"() {
@@ -30,6 +33,52 @@ class MessageResolutionSpec extends Specification {
             result == "Witaj Jan Kowalski"
     }
 
+    def "should return static message with unquoted apostrophes"() {
+        given:
+            I18nMessages messages = I18nMessagePack.builder()
+                    .addMessage(PL, "hello", "'{'Jan'}' it''s")
+                    .buildLocalized(PL)
+        expect:
+            messages.getMessage("hello") == "{Jan} it's"
+            messages.getMessage("hello", "ignored") == "{Jan} it's"
+    }
+
+    def "should append messages to a buffer"() {
+        given:
+            I18nMessages messages = I18nMessagePack.builder()
+                    .addMessage(PL, "hello", "Witaj {0}")
+                    .addMessage(PL, "named", "Witaj {name}")
+                    .addMessage(PL, "static", "Cześć")
+                    .buildLocalized(PL)
+            StringBuilder builder = new StringBuilder("> ")
+            StringWriter writer = new StringWriter()
+        when:
+            messages.formatTo(builder, "hello", "Jan")
+            messages.formatTo(builder, "static")
+            messages.formatTo(writer, "named", [name: "Jan"])
+            messages.formatTo(writer, "static")
+        then:
+            builder.toString() == "> Witaj JanCześć"
+            writer.toString() == "Witaj JanCześć"
+    }
+
+    def "should write UTF-8 encoded messages"() {
+        given:
+            I18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addMessage(PL, "hello", "Witaj {0}")
+                    .addMessage(PL, "static", "Cześć")
+                    .build()
+            ByteArrayOutputStream stream = new ByteArrayOutputStream()
+            ByteBuffer buffer = ByteBuffer.allocate(64)
+        when:
+            messagePack.writeUtf8(stream, PL, "static")
+            messagePack.writeUtf8(stream, PL, "hello", "Żaneto")
+            messagePack.writeUtf8(buffer, PL, "static")
+        then:
+            new String(stream.toByteArray(), UTF_8) == "CześćWitaj Żaneto"
+            new String(buffer.array(), 0, buffer.position(), UTF_8) == "Cześć"
+    }
+
     @Unroll
     def "should prefix queries (#locale, #path)"() {
         given:
@@ -47,4 +96,73 @@ class MessageResolutionSpec extends Specification {
             messagePack.getMessage(EN_US, "b") == "en-US:b"
             messagePack.getMessage(EN_US, "c") == "pl:x.y.c"
     }
+
+    def "should resolve multiple messages in one call"() {
+        given:
+            I18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addMessage(EN_US, "x.a", "en-US:a {0}")
+                    .addMessage(EN_US, "b", "en-US:b")
+                    .addMessage(PL, "c", "pl:c {0}")
+                    .setDefaultLocale(PL_PL)
+                    .usePathOnMissingMessage()
+                    .build()
+            List<I18nPath> paths = ["c", "b", "missing", "a"].collect { I18nPath.of(it) }
+        when:
+            Map<I18nPath, String> result = messagePack.prefixQueries("x")
+                    .resolveAll(EN_US, paths, "X")
+        then:
+            result.collect { it.key.toString() + "=" + it.value } == [
+                    "c=pl:c X",
+                    "b=en-US:b",
+                    "missing=missing",
+                    "a=en-US:a X"
+            ]
+        and:
+            messagePack.localize(EN_US).getMessages([I18nPath.of("b")]) == [(I18nPath.of("b")): "en-US:b"]
+    }
+
+    def "should throw error for missing message in batch resolution"() {
+        given:
+            I18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addMessage(EN_US, "a", "en-US:a")
+                    .build()
+        when:
+            messagePack.resolveAll(EN_US, [I18nPath.of("a"), I18nPath.of("b")])
+        then:
+            I18nMessagesException e = thrown(I18nMessagesException)
+            e.message == "Missing message en-US:b"
+    }
+
+    @Unroll
+    def "should format message for many rows: #template"() {
+        given:
+            I18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addMessage(EN_US, "msg", template)
+                    .build()
+            List<Object[]> rows = (0..<3000).collect { [it, "user" + it] as Object[] }
+            List<String> expected = rows.collect { messagePack.getMessage(EN_US, "msg", it) }
+            I18nKey key = I18nKey.of(EN_US, "msg")
+        expect:
+            messagePack.formatAll(key, rows) == expected
+            messagePack.formatAllParallel(key, rows) == expected
+            messagePack.formatAll(key, rows.stream()).toList() == expected
+        where:
+            template << [
+                    "Hello {1} #{0}",
+                    "{1} has {0,plural,one{# item} other{# items}}",
+                    "Static"
+            ]
+    }
+
+    def "should report failing row in batch formatting"() {
+        given:
+            I18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addMessage(EN_US, "msg", "{0,number}")
+                    .build()
+        when:
+            messagePack.formatAll(I18nKey.of(EN_US, "msg"), [[1] as Object[], ["x"] as Object[]])
+        then:
+            IllegalArgumentException e = thrown(IllegalArgumentException)
+            e.message.startsWith("Could not resolve message en-US:msg=\"{0,number}\" with indexed arguments [x]")
+    }
 }
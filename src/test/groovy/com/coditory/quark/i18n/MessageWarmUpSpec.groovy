@@ -0,0 +1,112 @@
+package com.coditory.quark.i18n
+
+import spock.lang.Specification
+
+import java.util.concurrent.Executor
+
+import static com.coditory.quark.i18n.Locales.EN
+import static com.coditory.quark.i18n.Locales.EN_US
+import static com.coditory.quark.i18n.Locales.PL
+
+class MessageWarmUpSpec extends Specification {
+    I18nMessagePackBuilder builder = I18nMessagePack.builder()
+            .addMessage(EN, "items", "{0,plural,one{# item} other{# items}}")
+            .addMessage(PL, "items", "{0,plural,one{# rzecz} few{# rzeczy} other{# rzeczy}}")
+            .addMessage(EN, "hello", "Hello {0}")
+            .setDefaultLocale(EN)
+
+    def "should not warm up templates by default"() {
+        when:
+            ImmutableI18nMessagePack messagePack = builder.build() as ImmutableI18nMessagePack
+        then:
+            messagePack.getWarmUpReports() == [:]
+            !template(messagePack, EN, "items").isWarmedUp(EN)
+    }
+
+    def "should warm up selected locales"() {
+        when:
+            ImmutableI18nMessagePack messagePack = builder
+                    .warmUp(EN_US, PL)
+                    .build() as ImmutableI18nMessagePack
+        then:
+            warmedUpTemplates(messagePack) == [(EN_US): 2, (PL): 2]
+            messagePack.getWarmUpReports().values().every { !it.duration().isNegative() && !it.hasErrors() }
+            templates(messagePack, EN_US).every { it.isWarmedUp(EN_US) }
+            templates(messagePack, PL).every { it.isWarmedUp(PL) }
+            !template(messagePack, EN, "items").isWarmedUp(EN)
+        and:
+            messagePack.getMessage(EN_US, "items", 2) == "2 items"
+            messagePack.getMessage(PL, "items", 2) == "2 rzeczy"
+            messagePack.getMessage(PL, "hello", "Jan") == "Hello Jan"
+    }
+
+    def "should warm up all locales on executor"() {
+        given:
+            List<Runnable> tasks = []
+            Executor executor = { Runnable task -> tasks.add(task) } as Executor
+        when:
+            ImmutableI18nMessagePack messagePack = builder
+                    .warmUpAllLocales()
+                    .setWarmUpExecutor(executor)
+                    .build() as ImmutableI18nMessagePack
+        then:
+            tasks.size() == 2
+            messagePack.getWarmUpReports() == [:]
+
+        when:
+            tasks.each { it.run() }
+        then:
+            warmedUpTemplates(messagePack) == [(EN): 2, (PL): 2]
+            template(messagePack, EN, "items").isWarmedUp(EN)
+            template(messagePack, PL, "items").isWarmedUp(PL)
+        and:
+            messagePack.getMessage(EN_US, "items", 1) == "1 item"
+            messagePack.getMessage(PL, "items", 5) == "5 rzeczy"
+    }
+
+    def "should report invalid lazy templates and warm up the rest"() {
+        when:
+            I18nMessagePack messagePack = builder
+                    .addMessage(EN, "invalid", "Hello {0")
+                    .compileTemplatesLazily()
+                    .warmUp(EN)
+                    .build()
+        then:
+            I18nWarmUpReport report = messagePack.getWarmUpReports()[EN]
+            report.templates() == 2
+            report.errors().size() == 1
+            report.errors()[0].message == 'Could not compile message en:invalid="Hello {0"'
+        and:
+            template(messagePack as ImmutableI18nMessagePack, EN, "items").isWarmedUp(EN)
+            template(messagePack as ImmutableI18nMessagePack, EN, "hello").isWarmedUp(EN)
+    }
+
+    def "should expose warm-up reports on reloadable message pack"() {
+        when:
+            Reloadable18nMessagePack messagePack = builder
+                    .warmUp(PL)
+                    .buildReloadable()
+        then:
+            messagePack.getWarmUpReports().keySet() == [PL] as Set
+            messagePack.getWarmUpReports()[PL].templates() == 2
+    }
+
+    def "should reject empty warm-up locales"() {
+        when:
+            builder.warmUp()
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    private static Map<Locale, Integer> warmedUpTemplates(I18nMessagePack messagePack) {
+        return messagePack.getWarmUpReports().collectEntries { [(it.key): it.value.templates()] }
+    }
+
+    private static List<MessageTemplate> templates(ImmutableI18nMessagePack messagePack, Locale locale) {
+        return messagePack.@index.getTemplates(locale).collect { it.template() }
+    }
+
+    private static MessageTemplate template(ImmutableI18nMessagePack messagePack, Locale locale, String path) {
+        return messagePack.@index.get(I18nKey.of(locale, path)).template()
+    }
+}
@@ -29,4 +29,26 @@ class MessageWhitespaceNormalizationSpec extends Specification {
         then:
             result == " \n\tsome   text\n with\t\tspaces  "
     }
+
+    @Unroll
+    def "should normalize whitespaces in: '#template'"() {
+        expect:
+            MessageTemplateNormalizer.normalizeWhiteSpaces(template) == expected
+        where:
+            template             || expected
+            ""                   || ""
+            "   "                || ""
+            "a b"                || "a b"
+            "a\tb"               || "a b"
+            "a \r\n b"           || "a b"
+            "\u000Ba\fb\u000B"  || "a b"
+            " {0} "              || "{0}"
+    }
+
+    def "should not copy already normalized template"() {
+        given:
+            String template = "some text with {0}"
+        expect:
+            MessageTemplateNormalizer.normalizeWhiteSpaces(template).is(template)
+    }
 }
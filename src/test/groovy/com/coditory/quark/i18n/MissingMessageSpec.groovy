@@ -61,4 +61,17 @@ class MissingMessageSpec extends Specification {
         then:
             result == "home.bye"
     }
+
+    def "should return missing message path for prefixed queries when using printing unresolved message handler"() {
+        given:
+            I18nMessagePack messages = I18nMessagePack.builder()
+                    .addMessage(EN, "x.a", "A")
+                    .usePathOnMissingMessage()
+                    .build()
+                    .prefixQueries("x")
+        expect:
+            messages.getMessage(EN, "a") == "A"
+            messages.getMessage(EN, "b") == "b"
+            messages.getMessage(PL, "a") == "a"
+    }
 }
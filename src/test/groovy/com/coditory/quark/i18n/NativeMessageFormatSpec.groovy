@@ -0,0 +1,128 @@
+package com.coditory.quark.i18n
+
+import com.ibm.icu.text.MessageFormat
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import static com.coditory.quark.i18n.Locales.EN_US
+
+class NativeMessageFormatSpec extends Specification {
+    static final Date DATE = new Date(1196676930000L)
+
+    SharedFormats sharedFormats = new SharedFormats(true)
+
+    @Unroll
+    def "should format indexed template the same way as ICU: #template"() {
+        given:
+            NativeMessageFormat format = NativeMessageFormat.compile(template, sharedFormats)
+        expect:
+            format != null
+            format.format(EN_US, args as Object[]) == new MessageFormat(template, EN_US).format(args as Object[])
+        where:
+            template              | args
+            "Hello"               | []
+            "{0}"                 | ["Jan"]
+            "a {0} b {1}"         | ["Jan", "Kowalski"]
+            "{1} {0} {1}"         | ["a", "b"]
+            "it''s {0}"           | ["Jan"]
+            "it's {0}"            | ["Jan"]
+            "'{0}' {0}"           | ["Jan"]
+            "'{'{0}'}'"           | ["Jan"]
+            "{ 0 }"               | ["Jan"]
+            "{0} {1}"             | ["Jan"]
+            "{0}"                 | [null]
+            "{0} {1}"             | [true, new Wrapper("x")]
+            "{0}"                 | [1234.5]
+            "{0}"                 | [DATE]
+            "{0,number}"          | [1234.5]
+            "{0,number,integer}"  | [1234.5]
+            "{0,number,percent}"  | [0.25]
+            "{0,number,currency}" | [12.5]
+            "{0,number,#.##}"     | [1234.567]
+            "{0,date}"            | [DATE]
+            "{0,date,short}"      | [DATE]
+            "{0,date,full}"       | [DATE]
+            "{0,time,short}"      | [DATE]
+            "{0,date,yyyy-MM}"    | [DATE]
+            "{0,number} {0}"      | [null]
+    }
+
+    @Unroll
+    def "should format named template the same way as ICU: #template"() {
+        given:
+            NativeMessageFormat format = NativeMessageFormat.compile(template, sharedFormats)
+        expect:
+            format != null
+            format.format(EN_US, args) == new MessageFormat(template, EN_US).format(args)
+        where:
+            template             | args
+            "{name} and {other}" | [name: "a", other: "b"]
+            "{name} and {other}" | [name: "a"]
+            "'{name}' {name}"    | [name: "a"]
+            "{name}"             | [name: null]
+            "{name}"             | [name: new Wrapper("x")]
+    }
+
+    def "should reject indexed arguments for named template"() {
+        given:
+            NativeMessageFormat format = NativeMessageFormat.compile("{name}", sharedFormats)
+        when:
+            format.format(EN_US, ["a"] as Object[])
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    def "should share argument formats between templates"() {
+        expect:
+            sharedFormats.getFormat("number", "integer").is(sharedFormats.getFormat("number", "integer"))
+            sharedFormats.getFormat("number", "integer").is(sharedFormats.getFormat("number", "percent")) == false
+    }
+
+    @Unroll
+    def "should format money the same way as templates resolved by ICU: #template"() {
+        given:
+            Money money = new Money(new BigDecimal("1234.5"), Currencies.PLN)
+            ArgumentResolver argumentResolver = ArgumentResolver.of([], [])
+            MessageTemplate nativeTemplate = MessageTemplate.parse(template, argumentResolver, sharedFormats)
+            MessageTemplate icuTemplate = MessageTemplate.parse("{1,select,other{" + template + "}}", argumentResolver, sharedFormats)
+        expect:
+            nativeTemplate.@nativeFormat != null
+            icuTemplate.@nativeFormat == null
+        and:
+            nativeTemplate.resolve(EN_US, [money, "x"] as Object[]) == expected
+            icuTemplate.resolve(EN_US, [money, "x"] as Object[]) == expected
+        where:
+            template                  | expected
+            "{0,number,currency}"     | "PLN 1,234.50"
+            "{0,number}"              | "1,234.5"
+            "{0,number,#.##}"         | "1234.5"
+            "{0}"                     | "1 234,50 zł"
+            "{0} {0,number,currency}" | "1 234,50 zł PLN 1,234.50"
+    }
+
+    @Unroll
+    def "should not compile template with formatted arguments: #template"() {
+        expect:
+            NativeMessageFormat.compile(template, sharedFormats) == null
+        where:
+            template << [
+                    "{0} {name}",
+                    "{0,spellout}",
+                    "{0,plural,one{# item} other{# items}}",
+                    "{0,select,a{A} other{B}}",
+            ]
+    }
+
+    static class Wrapper {
+        final String value
+
+        Wrapper(String value) {
+            this.value = value
+        }
+
+        @Override
+        String toString() {
+            return "Wrapper(" + value + ")"
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.coditory.quark.i18n
+
+import spock.lang.Specification
+
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+import static com.coditory.quark.i18n.Locales.EN
+import static com.coditory.quark.i18n.Locales.PL
+
+class ParallelCompilationSpec extends Specification {
+    static final int MESSAGES = 2_000
+
+    ExecutorService executor = Executors.newFixedThreadPool(4)
+
+    void cleanup() {
+        executor.shutdownNow()
+    }
+
+    def "should compile templates in parallel with the same result as sequential compilation"() {
+        given:
+            I18nMessagePack sequential = builder().build()
+            I18nMessagePack parallel = builder().setCompilationParallelism(4).build()
+            I18nMessagePack onExecutor = builder().setCompilationExecutor(executor).build()
+        expect:
+            (0..<MESSAGES).step(17).every { int i ->
+                [EN, PL].every { Locale locale ->
+                    String expected = sequential.getMessage(locale, "msg" + i, "X")
+                    parallel.getMessage(locale, "msg" + i, "X") == expected
+                            && onExecutor.getMessage(locale, "msg" + i, "X") == expected
+                }
+            }
+    }
+
+    def "should report the same error as sequential compilation"() {
+        given:
+            I18nMessagePackBuilder builder = builder()
+                    .addMessage(PL, "invalid1", "Broken \$missing1")
+                    .addMessage(PL, "invalid2", "Broken \$missing2")
+        when:
+            builder.build()
+        then:
+            I18nMessagesException sequentialError = thrown(I18nMessagesException)
+
+        when:
+            builder.setCompilationParallelism(4).build()
+        then:
+            I18nMessagesException parallelError = thrown(I18nMessagesException)
+            parallelError.message == sequentialError.message
+    }
+
+    def "should reject invalid parallelism"() {
+        when:
+            I18nMessagePack.builder().setCompilationParallelism(0)
+        then:
+            thrown(IllegalArgumentException)
+    }
+
+    private static I18nMessagePackBuilder builder() {
+        I18nMessagePackBuilder builder = I18nMessagePack.builder()
+                .setDefaultLocale(EN)
+                .addMessage(EN, "company", "ACME")
+        for (int i = 0; i < MESSAGES; ++i) {
+            builder.addMessage(EN, "msg" + i, "Message " + i + " for {0} from \$company")
+            builder.addMessage(PL, "msg" + i, "Wiadomość " + i + " dla {0} od \$company")
+        }
+        return builder
+    }
+}
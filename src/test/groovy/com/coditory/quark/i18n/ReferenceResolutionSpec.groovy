@@ -1,8 +1,11 @@
 package com.coditory.quark.i18n
 
+import com.coditory.quark.i18n.loader.I18nMessageBundle
 import spock.lang.Specification
 
 import static com.coditory.quark.i18n.Locales.EN
+import static com.coditory.quark.i18n.Locales.PL
+import static com.coditory.quark.i18n.Locales.PL_PL
 
 class ReferenceResolutionSpec extends Specification {
     def "should resolve message reference"() {
@@ -76,7 +79,11 @@ class ReferenceResolutionSpec extends Specification {
                     .build()
         then:
             IllegalArgumentException e = thrown(IllegalArgumentException)
-            e.getMessage() == "Detected potential cyclic reference"
+            e.getMessage() in [
+                    "Detected cyclic reference: en:company.name1 -> en:company.name2 -> en:company.name3 -> en:company.name1",
+                    "Detected cyclic reference: en:company.name2 -> en:company.name3 -> en:company.name1 -> en:company.name2",
+                    "Detected cyclic reference: en:company.name3 -> en:company.name1 -> en:company.name2 -> en:company.name3"
+            ]
     }
 
     def "should throw error on a reference to itself"() {
@@ -86,7 +93,7 @@ class ReferenceResolutionSpec extends Specification {
                     .build()
         then:
             IllegalArgumentException e = thrown(IllegalArgumentException)
-            e.getMessage() == "Detected potential cyclic reference"
+            e.getMessage() == "Detected cyclic reference: en:msg -> en:msg"
     }
 
     def "should throw error on missing reference even when using printing unresolved message handler"() {
@@ -99,4 +106,58 @@ class ReferenceResolutionSpec extends Specification {
             I18nMessagesException e = thrown(I18nMessagesException)
             e.getMessage() == "Missing reference: missing.value"
     }
+
+    def "should not resolve escaped reference"() {
+        when:
+            String message = I18nMessagePack.builder()
+                    .addMessage(EN, "msg", "\\\$company.name costs \$price!")
+                    .addMessage(EN, "company.name", "ACME")
+                    .addMessage(EN, "price", "10 USD")
+                    .build()
+                    .getMessage(EN, "msg")
+        then:
+            message == "\$company.name costs 10 USD!"
+    }
+
+    def "should resolve shared reference once for all messages"() {
+        given:
+            I18nMessageBundle bundle = new I18nMessageBundle([
+                    (I18nKey.of(EN, "a"))           : "a: \$brand",
+                    (I18nKey.of(EN, "b"))           : "b: \$brand",
+                    (I18nKey.of(EN, "brand"))       : "\${brand.name} \${brand.suffix}",
+                    (I18nKey.of(EN, "brand.name"))  : "ACME",
+                    (I18nKey.of(EN, "brand.suffix")): "Inc.",
+            ])
+            LocaleResolver localeResolver = LocaleResolver.of(EN, [bundle])
+            ReferenceResolver resolver = new ReferenceResolver([bundle], new I18nKeyGenerator(EN, [], localeResolver), true)
+        when:
+            String a = resolver.resolveReferences(I18nKey.of(EN, "a"), "a: \$brand")
+        then:
+            a == "a: ACME Inc."
+            resolver.@resolvedReferences.size() == 3
+
+        when:
+            Map<Object, String> resolved = resolver.@resolvedReferences
+            Object brandQuery = resolved.keySet().find { it.path() == I18nPath.of("brand") }
+            resolved.put(brandQuery, "CACHED")
+        then:
+            resolver.resolveReferences(I18nKey.of(EN, "b"), "b: \$brand") == "b: CACHED"
+            resolver.resolveReferences(EN, "c: \$brand") == "c: CACHED"
+            resolver.@resolvedReferences.size() == 3
+    }
+
+    def "should resolve nested references in the locale of the referencing message"() {
+        given:
+            I18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addMessage(PL_PL, "page.footer", "Stopka \$common.footer")
+                    .addMessage(EN, "page.footer", "Footer \$common.footer")
+                    .addMessage(EN, "common.footer", "by \$brand")
+                    .addMessage(PL, "brand", "Marka")
+                    .addMessage(EN, "brand", "Brand")
+                    .setDefaultLocale(EN)
+                    .build()
+        expect:
+            messagePack.getMessage(PL_PL, "page.footer") == "Stopka by Marka"
+            messagePack.getMessage(EN, "page.footer") == "Footer by Brand"
+    }
 }
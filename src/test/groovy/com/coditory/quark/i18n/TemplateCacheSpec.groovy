@@ -0,0 +1,97 @@
+package com.coditory.quark.i18n
+
+import com.coditory.quark.i18n.loader.I18nLoader
+import com.coditory.quark.i18n.loader.I18nMessageBundle
+import spock.lang.Specification
+
+import static com.coditory.quark.i18n.Locales.EN_US
+import static com.coditory.quark.i18n.Locales.PL_PL
+
+class TemplateCacheSpec extends Specification {
+    def "should cache templates parsed by format"() {
+        given:
+            I18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addMessage(EN_US, "name", "Joe")
+                    .addMessage(PL_PL, "name", "Jan")
+                    .build()
+        when:
+            String first = messagePack.format(EN_US, "Hello {0} from \$name", "Ann")
+            String second = messagePack.format(EN_US, "Hello {0} from \$name", "Bob")
+            String polish = messagePack.format(PL_PL, "Hello {0} from \$name", "Ann")
+        then:
+            first == "Hello Ann from Joe"
+            second == "Hello Bob from Joe"
+            polish == "Hello Ann from Jan"
+        and:
+            messagePack.getTemplateCacheStats() == new I18nTemplateCacheStats(1, 2, 2, 256)
+    }
+
+    def "should share cache with prefixed message packs"() {
+        given:
+            I18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addMessage(EN_US, "a.b", "B")
+                    .build()
+        when:
+            messagePack.format(EN_US, "Hello {name}", [name: "Ann"])
+            messagePack.prefixQueries("a").format(EN_US, "Hello {name}", [name: "Bob"])
+        then:
+            messagePack.getTemplateCacheStats().hits() == 1
+            messagePack.getTemplateCacheStats().misses() == 1
+    }
+
+    def "should evict least recently used templates"() {
+        given:
+            I18nMessagePack messagePack = I18nMessagePack.builder()
+                    .setTemplateCacheCapacity(2)
+                    .build()
+        when:
+            messagePack.format(EN_US, "a {0}", 1)
+            messagePack.format(EN_US, "b {0}", 1)
+            messagePack.format(EN_US, "a {0}", 1)
+            messagePack.format(EN_US, "c {0}", 1)
+            messagePack.format(EN_US, "a {0}", 1)
+            messagePack.format(EN_US, "b {0}", 1)
+        then:
+            messagePack.getTemplateCacheStats() == new I18nTemplateCacheStats(2, 4, 2, 2)
+    }
+
+    def "should not cache templates when capacity is 0"() {
+        given:
+            I18nMessagePack messagePack = I18nMessagePack.builder()
+                    .setTemplateCacheCapacity(0)
+                    .build()
+        when:
+            messagePack.format(EN_US, "a {0}", 1)
+            messagePack.format(EN_US, "a {0}", 1)
+        then:
+            messagePack.getTemplateCacheStats() == new I18nTemplateCacheStats(0, 2, 0, 0)
+    }
+
+    def "should not cache templates that could not be parsed"() {
+        given:
+            I18nMessagePack messagePack = I18nMessagePack.builder().build()
+        when:
+            messagePack.format(EN_US, "a {0", 1)
+        then:
+            thrown(IllegalArgumentException)
+            messagePack.getTemplateCacheStats().size() == 0
+    }
+
+    def "should clear cache on reload"() {
+        given:
+            Map<I18nKey, String> entries = [(I18nKey.of(EN_US, "name")): "Joe"]
+            I18nLoader loader = { -> [new I18nMessageBundle(entries)] }
+            Reloadable18nMessagePack messagePack = I18nMessagePack.builder()
+                    .addLoader(loader)
+                    .buildReloadable()
+        expect:
+            messagePack.format(EN_US, "Hello \$name") == "Hello Joe"
+            messagePack.getTemplateCacheStats().size() == 1
+        when:
+            entries[I18nKey.of(EN_US, "name")] = "Bob"
+            messagePack.reload()
+        then:
+            messagePack.getTemplateCacheStats().size() == 0
+            messagePack.format(EN_US, "Hello \$name") == "Hello Bob"
+    }
+}
@@ -69,6 +69,31 @@ class TypeBasedArgFormattingSpec extends Specification {
             message == "used"
     }
 
+    def "should transform argument by supertype and interface"() {
+        given:
+            I18nMessages messages = I18nMessagePack.builder()
+                    .addMessage(EN, "msg", "{0} {1}")
+                    .addArgumentTransformer(Number, { "#" + it })
+                    .addArgumentTransformer(CharSequence, { it.toString().toUpperCase() })
+                    .buildLocalized(EN)
+        when:
+            String result = messages.getMessage("msg", 5, new StringBuilder("abc"))
+        then:
+            result == "#5 ABC"
+    }
+
+    def "should transform named argument and keep other arguments"() {
+        given:
+            I18nMessages messages = I18nMessagePack.builder()
+                    .addMessage(EN, "msg", "{foo} {other}")
+                    .addArgumentTransformer(Foo, { ">>${it.value}<<" })
+                    .buildLocalized(EN)
+        when:
+            String result = messages.getMessage("msg", [foo: new Foo("abc"), other: "x"])
+        then:
+            result == ">>abc<< x"
+    }
+
     def "should throw error on cyclic transformation"() {
         given:
             I18nMessages messages = I18nMessagePack.builder()
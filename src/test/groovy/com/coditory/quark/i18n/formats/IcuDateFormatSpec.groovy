@@ -58,6 +58,53 @@ class IcuDateFormatSpec extends Specification {
             localDate     | "12/3/07, 12:00 AM"
     }
 
+    @Unroll
+    def "should format zoned date time in its own time zone: #zone"() {
+        given:
+            ZonedDateTime value = instant.atZone(zone)
+        expect:
+            i18nFormat(EN_US, "{0}", value) == expected
+            i18nFormat(EN_US, "{0, date, HH:mm}", value) == expectedTime
+        where:
+            zone                                       | expected            | expectedTime
+            ZoneId.of("Europe/Warsaw")                 | "12/3/07, 11:15 AM" | "11:15"
+            ZoneOffset.ofHours(-2)                     | "12/3/07, 8:15 AM"  | "08:15"
+            ZoneOffset.UTC                             | "12/3/07, 10:15 AM" | "10:15"
+            ZoneOffset.ofHoursMinutesSeconds(1, 0, 30) | "12/3/07, 11:16 AM" | "11:16"
+    }
+
+    def "should format java time values in templates resolved by ICU"() {
+        expect:
+            i18nFormat(EN_US, "{0,plural,one{# day} other{# days}} from {1}", 2, instant) == "2 days from 12/3/07, 10:15 AM"
+    }
+
+    @Unroll
+    def "should format zoned date time in its own time zone in templates resolved by ICU: #template"() {
+        given:
+            ZonedDateTime value = instant.atZone(ZoneId.of("Europe/Warsaw"))
+        expect:
+            i18nFormat(EN_US, template, value, 2, "soon") == expected
+        where:
+            template                                                   | expected
+            "{1,plural,one{# day} other{# days}} {0}"                  | "2 days 12/3/07, 11:15 AM"
+            "{1,plural,one{# day} other{# days}} {0, date, HH:mm}"     | "2 days 11:15"
+            "{2,select,soon{at {0, time, HH:mm}} other{never}}"        | "at 11:15"
+            "{1,plural,one{# day} other{# days}} {0} {0, date, HH:mm}" | "2 days 12/3/07, 11:15 AM 11:15"
+    }
+
+    @Unroll
+    def "should format zoned date time with its own time zone name: #template"() {
+        given:
+            ZonedDateTime value = instant.atZone(ZoneId.of("America/New_York"))
+        expect:
+            i18nFormat(EN_US, template, value, 2) == expected
+        where:
+            template                                                           | expected
+            "{0, date, HH:mm VV XXX}"                                          | "05:15 America/New_York -05:00"
+            "{1,plural,one{# day} other{# days}} {0, date, HH:mm VV XXX}"      | "2 days 05:15 America/New_York -05:00"
+            "{1,plural,one{# day} other{# days}} {0} {0, date, HH:mm VV XXX}" | "2 days 12/3/07, 5:15 AM 05:15 America/New_York -05:00"
+    }
+
     @Unroll
     def "should skip registering default java time transformers"() {
         given:
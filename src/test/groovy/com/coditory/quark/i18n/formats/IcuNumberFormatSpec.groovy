@@ -1,7 +1,9 @@
 package com.coditory.quark.i18n.formats
 
+import com.coditory.quark.i18n.Currencies
 import com.coditory.quark.i18n.I18nMessagePack
 import com.coditory.quark.i18n.I18nMessagePackFactory
+import com.coditory.quark.i18n.Money
 import spock.lang.Specification
 import spock.lang.Unroll
 
@@ -35,4 +37,38 @@ class IcuNumberFormatSpec extends Specification {
             "{0, number,00000.0000}"    | -123.45                    | "-00123.4500" | "-00123,4500"
             "{0, number,::percent .00}" | 0.25                       | "0.25%"       | "0,25%"
     }
+
+    @Unroll
+    def "should format money with its own currency: #value"() {
+        when:
+            String polishMessage = messages.format(PL_PL, "{0, number, currency}", value)
+            String englishMessage = messages.format(EN_US, "{0, number, currency}", value)
+        then:
+            polishMessage == expectedPl
+            englishMessage == expectedEn
+        where:
+            value                                              | expectedEn    | expectedPl
+            new Money(new BigDecimal("1234.5"), Currencies.PLN) | "PLN 1,234.50" | "1 234,50 zł"
+            new Money(new BigDecimal("1234.5"), Currencies.USD) | "\$1,234.50"  | "1 234,50 USD"
+            new Money(new BigDecimal("1234.5"), Currencies.EUR) | "€1,234.50"    | "1 234,50 €"
+            new Money(new BigDecimal("1234"), Currencies.JPY)   | "¥1,234"      | "1 234 JPY"
+    }
+
+    @Unroll
+    def "should format money with its own currency in templates resolved by ICU: #value"() {
+        given:
+            String template = "{1,plural,one{# item} other{# items}} for {0, number, currency}"
+        expect:
+            messages.format(PL_PL, template, value, 2) == "2 items for " + expectedPl
+            messages.format(EN_US, template, value, 2) == "2 items for " + expectedEn
+        where:
+            value                                              | expectedEn     | expectedPl
+            new Money(new BigDecimal("1234.5"), Currencies.PLN) | "PLN 1,234.50" | "1 234,50 zł"
+            new Money(new BigDecimal("1234"), Currencies.JPY)   | "¥1,234"       | "1 234 JPY"
+    }
+
+    def "should format money passed to argument without type with currency locale"() {
+        expect:
+            messages.format(EN_US, "{0}", new Money(new BigDecimal("1234.5"), Currencies.PLN)) == "1 234,50 zł"
+    }
 }